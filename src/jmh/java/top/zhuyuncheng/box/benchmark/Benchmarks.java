@@ -0,0 +1,25 @@
+package top.zhuyuncheng.box.benchmark;
+
+import java.util.Arrays;
+import com.google.common.collect.ObjectArrays;
+import org.openjdk.jmh.Main;
+
+/**
+ * 基准测试入口，委托给JMH命令行（-h、-l、-lp等照常可用），未指定-prof时默认附加-prof gc输出分配速率（gc.alloc.rate.norm）
+ * <p>
+ * mvn -Pbenchmark package
+ * java -jar target/benchmarks.jar JavassistUtilBenchmark -p backend=STREAMING
+ */
+public final class Benchmarks {
+    private static final String PROFILER_OPTION = "-prof";
+
+    private Benchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (!Arrays.asList(args).contains(PROFILER_OPTION)) {
+            args = ObjectArrays.concat(args, new String[]{PROFILER_OPTION, "gc"}, String.class);
+        }
+        Main.main(args);
+    }
+}
@@ -0,0 +1,74 @@
+package top.zhuyuncheng.box.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javassist.CtClass;
+import javassist.NotFoundException;
+import top.zhuyuncheng.box.clazz.CachingClassPoolProvider;
+import top.zhuyuncheng.box.clazz.ClassPoolProvider;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * 始终经过javassist ClassFile/CtClass的方法，不受分析方式影响，因此没有backend参数
+ * <p>
+ * clazz：同{@link JavassistUtilBenchmark}
+ * cacheSize：ClassFile/CtClass缓存上限，0表示不复用解析结果
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClassFileBenchmark {
+
+    @Param({"small", "large", "generics"})
+    private String clazz;
+
+    @Param({"0", "10000"})
+    private long cacheSize;
+
+    private String className;
+    private ClassPoolProvider previousProvider;
+
+    @Setup
+    public void setup() {
+        className = JavassistUtilBenchmark.CLASSES.get(clazz);
+        previousProvider = JavassistUtil.getClassPoolProvider();
+        JavassistUtil.setClassPoolProvider(new CachingClassPoolProvider(cacheSize));
+    }
+
+    @TearDown
+    public void tearDown() {
+        JavassistUtil.setClassPoolProvider(previousProvider);
+    }
+
+    @Benchmark
+    public Set<String> getMethodSignatureClass() throws NotFoundException {
+        return JavassistUtil.getMethodSignatureClass(className);
+    }
+
+    @Benchmark
+    public Set<String> getClassAnnotations() throws NotFoundException {
+        return JavassistUtil.getClassAnnotations(className);
+    }
+
+    @Benchmark
+    public CtClass getCtClass() throws NotFoundException {
+        return JavassistUtil.getCtClass(className);
+    }
+}
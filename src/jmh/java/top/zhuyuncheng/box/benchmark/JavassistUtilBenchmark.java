@@ -0,0 +1,114 @@
+package top.zhuyuncheng.box.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+
+import javassist.NotFoundException;
+import top.zhuyuncheng.box.clazz.AnalysisBackend;
+import top.zhuyuncheng.box.clazz.CachingClassPoolProvider;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.ClassPoolProvider;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * JavassistUtil中受分析方式影响的提取方法的吞吐量，只经过javassist的方法见{@link ClassFileBenchmark}
+ * <p>
+ * clazz：small（字段、方法少）、large（大量方法和常量）、generics（大量泛型Signature）
+ * backend：javassist或streaming
+ * cacheSize：ClassFile/CtClass缓存上限，0表示不复用解析结果
+ * *Concurrent方法使用所有CPU线程并发执行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JavassistUtilBenchmark {
+    static final Map<String, String> CLASSES = ImmutableMap.of(
+            "small", "top.zhuyuncheng.box.clazz.MethodDependency",
+            "large", "com.google.common.collect.ImmutableSortedMap",
+            "generics", "com.google.common.collect.Maps");
+
+    @Param({"small", "large", "generics"})
+    private String clazz;
+
+    @Param({"JAVASSIST", "STREAMING"})
+    private AnalysisBackend backend;
+
+    @Param({"0", "10000"})
+    private long cacheSize;
+
+    private String className;
+    private byte[] bytes;
+    private ClassPoolProvider previousProvider;
+    private AnalysisBackend previousBackend;
+
+    @Setup
+    public void setup() throws IOException {
+        className = CLASSES.get(clazz);
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class")) {
+            bytes = ByteStreams.toByteArray(in);
+        }
+        previousProvider = JavassistUtil.getClassPoolProvider();
+        previousBackend = JavassistUtil.getBackend();
+        JavassistUtil.setClassPoolProvider(new CachingClassPoolProvider(cacheSize));
+        JavassistUtil.setBackend(backend);
+    }
+
+    @TearDown
+    public void tearDown() {
+        JavassistUtil.setClassPoolProvider(previousProvider);
+        JavassistUtil.setBackend(previousBackend);
+    }
+
+    @Benchmark
+    public Set<String> getAllDependency() throws NotFoundException, ClassNotFoundException {
+        return JavassistUtil.getAllDependency(className);
+    }
+
+    @Benchmark
+    public Set<String> getClassRelyClass() throws NotFoundException {
+        return JavassistUtil.getClassRelyClass(className);
+    }
+
+    /**
+     * 直接分析字节码，不经过ClassLoader和缓存
+     */
+    @Benchmark
+    public ClassDependency analyzeBytes() throws IOException {
+        return JavassistUtil.analyze(bytes);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Set<String> getAllDependencyConcurrent() throws NotFoundException, ClassNotFoundException {
+        return JavassistUtil.getAllDependency(className);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public ClassDependency analyzeBytesConcurrent() throws IOException {
+        return JavassistUtil.analyze(bytes);
+    }
+}
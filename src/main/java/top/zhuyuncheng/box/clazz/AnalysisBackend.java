@@ -0,0 +1,15 @@
+package top.zhuyuncheng.box.clazz;
+
+/**
+ * 依赖分析的实现方式
+ */
+public enum AnalysisBackend {
+    /**
+     * 通过javassist解析完整的ClassFile
+     */
+    JAVASSIST,
+    /**
+     * 通过{@link top.zhuyuncheng.box.clazz.reader.ClassFileReader}顺序读取字节码，适合批量扫描
+     */
+    STREAMING
+}
@@ -0,0 +1,67 @@
+package top.zhuyuncheng.box.clazz;
+
+/**
+ * 依赖分析的监听，用于统计各阶段耗时、成功失败数以及缓存命中情况
+ * <p>
+ * 通过{@link JavassistUtil#setAnalysisListener(AnalysisListener)}注册，未注册时为{@link #NOOP}，
+ * 此时不会调用System.nanoTime()。回调可能被多个线程同时调用，实现类需要保证线程安全。
+ */
+public interface AnalysisListener {
+    AnalysisListener NOOP = new AnalysisListener() {
+    };
+
+    /**
+     * 定位字节码（ClassLoader查找资源、读取）
+     *
+     * @param className 类名
+     * @param nanos     耗时
+     */
+    default void onLocate(String className, long nanos) {
+    }
+
+    /**
+     * 解析ClassFile
+     *
+     * @param className 类名
+     * @param nanos     耗时
+     */
+    default void onParse(String className, long nanos) {
+    }
+
+    /**
+     * 提取依赖，一个类分析完成，streaming方式解析与提取合并在此阶段
+     *
+     * @param className 类名
+     * @param nanos     耗时
+     */
+    default void onExtract(String className, long nanos) {
+    }
+
+    /**
+     * 分析失败
+     * <p>
+     * 直接分析字节码（{@link JavassistUtil#analyze(byte[])}等）时来源未知，不回调，
+     * 由持有来源名称的调用方（如BatchAnalyzer、DependencyScanner）通知
+     *
+     * @param source 类名、文件或jar条目（jar路径!/条目名），不为null
+     * @param cause  异常
+     */
+    default void onFailure(String source, Throwable cause) {
+    }
+
+    /**
+     * ClassFile/CtClass缓存命中
+     *
+     * @param className 类名
+     */
+    default void onCacheHit(String className) {
+    }
+
+    /**
+     * ClassFile/CtClass缓存未命中
+     *
+     * @param className 类名
+     */
+    default void onCacheMiss(String className) {
+    }
+}
@@ -0,0 +1,122 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 内置的统计实现，累加各阶段耗时和计数
+ * <p>
+ * JavassistUtil.setAnalysisListener(metrics);
+ * ...
+ * metrics.snapshot();
+ */
+public class AnalysisMetrics implements AnalysisListener {
+    private final LongAdder locateCount = new LongAdder();
+    private final LongAdder locateNanos = new LongAdder();
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder extractNanos = new LongAdder();
+    private final LongAdder analyzed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    @Override
+    public void onLocate(String className, long nanos) {
+        locateCount.increment();
+        locateNanos.add(nanos);
+    }
+
+    @Override
+    public void onParse(String className, long nanos) {
+        parseCount.increment();
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public void onExtract(String className, long nanos) {
+        analyzed.increment();
+        extractNanos.add(nanos);
+    }
+
+    @Override
+    public void onFailure(String source, Throwable cause) {
+        failed.increment();
+    }
+
+    @Override
+    public void onCacheHit(String className) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void onCacheMiss(String className) {
+        cacheMisses.increment();
+    }
+
+    /**
+     * 当前统计，包含当前ClassPoolProvider的ClassPool和缓存大小
+     *
+     * @return
+     */
+    public Snapshot snapshot() {
+        ClassPoolProvider provider = JavassistUtil.getClassPoolProvider();
+        return Snapshot.builder()
+                .analyzed(analyzed.sum())
+                .failed(failed.sum())
+                .located(locateCount.sum())
+                .parsed(parseCount.sum())
+                .locateMillis(TimeUnit.NANOSECONDS.toMillis(locateNanos.sum()))
+                .parseMillis(TimeUnit.NANOSECONDS.toMillis(parseNanos.sum()))
+                .extractMillis(TimeUnit.NANOSECONDS.toMillis(extractNanos.sum()))
+                .cacheHits(cacheHits.sum())
+                .cacheMisses(cacheMisses.sum())
+                .poolCount(provider.poolCount())
+                .cachedClassCount(provider.cachedClassCount())
+                .build();
+    }
+
+    /**
+     * 清零
+     */
+    public void reset() {
+        locateCount.reset();
+        locateNanos.reset();
+        parseCount.reset();
+        parseNanos.reset();
+        extractNanos.reset();
+        analyzed.reset();
+        failed.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+    }
+
+    @Data
+    @Builder
+    public static class Snapshot {
+        private long analyzed;
+        private long failed;
+        private long located;
+        private long parsed;
+        private long locateMillis;
+        private long parseMillis;
+        private long extractMillis;
+        private long cacheHits;
+        private long cacheMisses;
+        private long poolCount;
+        private long cachedClassCount;
+
+        /**
+         * 缓存命中率
+         *
+         * @return
+         */
+        public double cacheHitRatio() {
+            long total = cacheHits + cacheMisses;
+            return total == 0 ? 0 : (double) cacheHits / total;
+        }
+    }
+}
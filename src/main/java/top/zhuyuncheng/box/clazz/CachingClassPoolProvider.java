@@ -0,0 +1,216 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.LoaderClassPath;
+import javassist.NotFoundException;
+import javassist.bytecode.ClassFile;
+
+/**
+ * 默认的ClassPool管理：
+ * 每个ClassLoader复用一个ClassPool（弱引用，ClassLoader回收后随之释放），
+ * CtClass、ClassFile按LRU缓存，超过上限时淘汰，淘汰的CtClass会从ClassPool中detach
+ * <p>
+ * 缓存命中时直接返回共享实例，不做拷贝：调用方不能修改（如toClass、字节码编辑）。
+ * 调用方自行detach后，缓存中的实例仍可读取，但与ClassPool中重新创建的实例不再是同一个，直到被淘汰
+ */
+public class CachingClassPoolProvider implements ClassPoolProvider {
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private final Cache<ClassLoader, Pool> pools = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build();
+    private final Pool bootstrapPool = new Pool(null);
+
+    private final Cache<ClassKey, CtClass> ctClasses;
+    private final Cache<ClassKey, ClassFile> classFiles;
+
+    private volatile AnalysisListener listener = AnalysisListener.NOOP;
+
+    public CachingClassPoolProvider() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize CtClass、ClassFile各自缓存的最大数量
+     */
+    public CachingClassPoolProvider(long maximumSize) {
+        this.ctClasses = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .removalListener((RemovalListener<ClassKey, CtClass>) notification -> {
+                    // 从ClassPool中移除，避免ClassPool无限增长
+                    CtClass ctClass = notification.getValue();
+                    if (ctClass != null) {
+                        ctClass.detach();
+                    }
+                })
+                .build();
+        this.classFiles = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public ClassPool getClassPool(ClassLoader classLoader) {
+        return pool(classLoader).classPool;
+    }
+
+    @Override
+    public CtClass getCtClass(String className, ClassLoader classLoader) throws NotFoundException {
+        Pool pool = pool(classLoader);
+        ClassKey key = new ClassKey(pool, className);
+        if (listener != AnalysisListener.NOOP) {
+            CtClass cached = ctClasses.getIfPresent(key);
+            if (cached != null) {
+                listener.onCacheHit(className);
+                return cached;
+            }
+            listener.onCacheMiss(className);
+        }
+        try {
+            return ctClasses.get(key, () -> pool.classPool.get(className));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw notFound(className, e);
+        }
+    }
+
+    @Override
+    public ClassFile getClassFile(String className, ClassLoader classLoader) throws NotFoundException {
+        Pool pool = pool(classLoader);
+        ClassKey key = new ClassKey(pool, className);
+        if (listener != AnalysisListener.NOOP) {
+            ClassFile cached = classFiles.getIfPresent(key);
+            if (cached != null) {
+                listener.onCacheHit(className);
+                return cached;
+            }
+            listener.onCacheMiss(className);
+        }
+        try {
+            return classFiles.get(key, () -> readClassFile(pool.classPool, className));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw notFound(className, e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        ctClasses.invalidateAll();
+        classFiles.invalidateAll();
+    }
+
+    @Override
+    public void setAnalysisListener(AnalysisListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public long poolCount() {
+        return pools.size() + 1;
+    }
+
+    @Override
+    public long cachedClassCount() {
+        return ctClasses.size() + classFiles.size();
+    }
+
+    private Pool pool(ClassLoader classLoader) {
+        if (classLoader == null) {
+            return bootstrapPool;
+        }
+        try {
+            return pools.get(classLoader, () -> new Pool(classLoader));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ClassFile readClassFile(ClassPool classPool, String className) throws NotFoundException, IOException {
+        AnalysisListener listener = this.listener;
+        if (listener == AnalysisListener.NOOP) {
+            return new ClassFile(new DataInputStream(new ByteArrayInputStream(locate(classPool, className))));
+        }
+
+        long start = System.nanoTime();
+        byte[] bytes = locate(classPool, className);
+        long located = System.nanoTime();
+        listener.onLocate(className, located - start);
+        ClassFile classFile = new ClassFile(new DataInputStream(new ByteArrayInputStream(bytes)));
+        listener.onParse(className, System.nanoTime() - located);
+        return classFile;
+    }
+
+    private static byte[] locate(ClassPool classPool, String className) throws NotFoundException, IOException {
+        URL url = classPool.find(className);
+        if (url == null) {
+            throw new NotFoundException(className);
+        }
+        try (InputStream in = url.openStream()) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static NotFoundException notFound(String className, Exception e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof NotFoundException) {
+            return (NotFoundException) cause;
+        }
+        return new NotFoundException(className, cause instanceof Exception ? (Exception) cause : e);
+    }
+
+    /**
+     * ClassLoader对应的ClassPool，只弱引用ClassLoader
+     */
+    private static final class Pool {
+        private final ClassPool classPool;
+
+        private Pool(ClassLoader classLoader) {
+            this.classPool = new ClassPool(true);
+            if (classLoader != null) {
+                // 只插入一次，按资源读取字节码，不会加载类
+                this.classPool.insertClassPath(new LoaderClassPath(classLoader));
+            }
+        }
+    }
+
+    private static final class ClassKey {
+        private final Pool pool;
+        private final String className;
+
+        private ClassKey(Pool pool, String className) {
+            this.pool = pool;
+            this.className = className;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ClassKey)) {
+                return false;
+            }
+            ClassKey that = (ClassKey) o;
+            return pool == that.pool && className.equals(that.className);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(pool), className);
+        }
+    }
+}
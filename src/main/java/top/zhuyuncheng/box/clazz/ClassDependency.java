@@ -0,0 +1,45 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 类的依赖分析结果，按来源分类
+ * {@link #getAnnotations()}  类注解
+ * {@link #getSuperClasses()} 父类
+ * {@link #getInterfaces()}   接口
+ * {@link #getFields()}       字段类型
+ * {@link #getSignatures()}   方法声明
+ * {@link #getConstPool()}    常量池（代码内使用的类）
+ */
+@Data
+@Builder
+public class ClassDependency {
+    private String className;
+    private Set<String> annotations;
+    private Set<String> superClasses;
+    private Set<String> interfaces;
+    private Set<String> fields;
+    private Set<String> signatures;
+    private Set<String> constPool;
+
+    /**
+     * 所有分类的依赖合集
+     *
+     * @return
+     */
+    public Set<String> all() {
+        Set<String> set = Sets.newHashSet();
+        set.addAll(annotations);
+        set.addAll(superClasses);
+        set.addAll(interfaces);
+        set.addAll(fields);
+        set.addAll(signatures);
+        set.addAll(constPool);
+        return set;
+    }
+}
@@ -0,0 +1,70 @@
+package top.zhuyuncheng.box.clazz;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.NotFoundException;
+import javassist.bytecode.ClassFile;
+
+/**
+ * ClassPool管理，负责ClassPool的复用以及CtClass、ClassFile的缓存
+ * 实现类需要保证线程安全
+ */
+public interface ClassPoolProvider {
+
+    /**
+     * 获取ClassLoader对应的ClassPool
+     *
+     * @param classLoader 类加载器
+     * @return
+     */
+    ClassPool getClassPool(ClassLoader classLoader);
+
+    /**
+     * 获取CtClass，返回的实例可能被缓存并由所有调用方共享，不能修改，也不能detach
+     *
+     * @param className   类名
+     * @param classLoader 类加载器
+     * @return
+     */
+    CtClass getCtClass(String className, ClassLoader classLoader) throws NotFoundException;
+
+    /**
+     * 获取ClassFile，仅读取字节码，不加载类；返回的实例可能被缓存并由所有调用方共享，不能修改
+     *
+     * @param className   类名
+     * @param classLoader 类加载器
+     * @return
+     */
+    ClassFile getClassFile(String className, ClassLoader classLoader) throws NotFoundException;
+
+    /**
+     * 清空缓存
+     */
+    void clear();
+
+    /**
+     * 设置监听，上报定位、解析耗时以及缓存命中情况
+     *
+     * @param listener 监听
+     */
+    default void setAnalysisListener(AnalysisListener listener) {
+    }
+
+    /**
+     * ClassPool数量
+     *
+     * @return
+     */
+    default long poolCount() {
+        return 0;
+    }
+
+    /**
+     * 缓存的CtClass、ClassFile数量
+     *
+     * @return
+     */
+    default long cachedClassCount() {
+        return 0;
+    }
+}
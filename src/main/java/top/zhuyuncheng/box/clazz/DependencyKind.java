@@ -0,0 +1,31 @@
+package top.zhuyuncheng.box.clazz;
+
+/**
+ * 依赖来源，与{@link ClassDependency}的分类一一对应
+ */
+public enum DependencyKind {
+    /**
+     * 类注解
+     */
+    ANNOTATION,
+    /**
+     * 父类
+     */
+    SUPER_CLASS,
+    /**
+     * 接口
+     */
+    INTERFACE,
+    /**
+     * 字段类型
+     */
+    FIELD,
+    /**
+     * 方法声明
+     */
+    SIGNATURE,
+    /**
+     * 常量池（代码内使用的类）
+     */
+    CONST_POOL
+}
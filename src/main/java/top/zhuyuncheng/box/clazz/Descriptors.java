@@ -0,0 +1,165 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import top.zhuyuncheng.box.clazz.reader.SymbolTable;
+
+/**
+ * 字段/方法描述符以及泛型Signature的解析，不使用正则，一次扫描提取所有类名，类名来自{@link SymbolTable}
+ * <p>
+ * 支持数组、泛型参数（含通配符、嵌套）、内部类（Outer&lt;T&gt;.Inner）、类型变量以及类/方法的类型参数声明
+ */
+public final class Descriptors {
+
+    private Descriptors() {
+    }
+
+    /**
+     * 内部类名转为'.'分隔的类名，如java/lang/String -> java.lang.String，返回{@link SymbolTable}中的共享实例，
+     * 数组描述符只做替换，不放入符号表
+     *
+     * @param internalName 内部类名
+     * @return
+     */
+    public static String toClassName(String internalName) {
+        if (internalName != null && internalName.startsWith("[")) {
+            return internalName.replace('/', '.');
+        }
+        return SymbolTable.global().intern(internalName);
+    }
+
+    /**
+     * 提取描述符或Signature中的所有类名
+     *
+     * @param descriptor 字段/方法描述符或者类/字段/方法的Signature
+     * @param set        结果
+     */
+    public static void collectClassNames(String descriptor, Set<String> set) {
+        collectClassNames(descriptor, (Consumer<String>) set::add);
+    }
+
+    /**
+     * 提取描述符或Signature中的所有类名，按出现顺序回调，不去重
+     *
+     * @param descriptor 字段/方法描述符或者类/字段/方法的Signature
+     * @param consumer   类名回调
+     */
+    public static void collectClassNames(String descriptor, Consumer<String> consumer) {
+        if (descriptor == null || descriptor.isEmpty()) {
+            return;
+        }
+        new Parser(descriptor, consumer).parse();
+    }
+
+    private static final class Parser {
+        private final String text;
+        private final Consumer<String> consumer;
+        private final char[] name;
+        private int index;
+
+        private Parser(String text, Consumer<String> consumer) {
+            this.text = text;
+            this.consumer = consumer;
+            this.name = new char[text.length()];
+        }
+
+        private void parse() {
+            if (text.charAt(0) == '<') {
+                typeParameters();
+            }
+            int length = text.length();
+            while (index < length) {
+                char c = text.charAt(index);
+                if (c == 'L') {
+                    classType(0);
+                } else if (c == 'T') {
+                    typeVariable();
+                } else {
+                    // '(' ')' '[' '^' 以及基本类型
+                    index++;
+                }
+            }
+        }
+
+        /**
+         * &lt;T:Ljava/lang/Object;U::Ljava/lang/Comparable&lt;TU;&gt;;&gt;
+         */
+        private void typeParameters() {
+            index++;
+            while (text.charAt(index) != '>') {
+                index = text.indexOf(':', index);
+                while (text.charAt(index) == ':') {
+                    index++;
+                    char c = text.charAt(index);
+                    if (c != ':' && c != '>') {
+                        referenceType(0);
+                    }
+                }
+            }
+            index++;
+        }
+
+        private void referenceType(int base) {
+            char c = text.charAt(index);
+            while (c == '[') {
+                c = text.charAt(++index);
+            }
+            if (c == 'L') {
+                classType(base);
+            } else if (c == 'T') {
+                typeVariable();
+            } else {
+                index++;
+            }
+        }
+
+        private void typeVariable() {
+            index = text.indexOf(';', index) + 1;
+        }
+
+        /**
+         * Ljava/util/Map&lt;TK;TV;&gt;.Entry&lt;+Ljava/lang/Number;*&gt;;
+         * <p>
+         * 类名写入name[base, ...)，泛型参数中的类名写在其后，写入的字符数不会超过已读取的字符数。
+         * 内部类之前的外部类（java.util.Map）也是依赖，与内部类（java.util.Map$Entry）一起输出
+         */
+        private void classType(int base) {
+            index++;
+            int n = base;
+            while (true) {
+                char c = text.charAt(index++);
+                if (c == ';') {
+                    break;
+                } else if (c == '<') {
+                    typeArguments(n);
+                } else if (c == '.') {
+                    // 泛型外部类后的内部类
+                    consumer.accept(SymbolTable.global().intern(name, base, n));
+                    name[n++] = '$';
+                } else {
+                    name[n++] = c == '/' ? '.' : c;
+                }
+            }
+            consumer.accept(SymbolTable.global().intern(name, base, n));
+        }
+
+        private void typeArguments(int base) {
+            while (true) {
+                char c = text.charAt(index);
+                if (c == '>') {
+                    index++;
+                    return;
+                }
+                if (c == '*') {
+                    index++;
+                    continue;
+                }
+                if (c == '+' || c == '-') {
+                    index++;
+                }
+                referenceType(base);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.util.Set;
+
+/**
+ * 依赖边的接收方，分析过程中每发现一条依赖回调一次，不需要为每个类构建Set
+ */
+@FunctionalInterface
+public interface EdgeSink {
+
+    /**
+     * 一条依赖边
+     *
+     * @param source 类名
+     * @param target 被依赖的类名
+     * @param kind   依赖来源
+     */
+    void accept(String source, String target, DependencyKind kind);
+
+    /**
+     * 将已有的分析结果按边输出
+     *
+     * @param dependency 类的依赖
+     */
+    default void accept(ClassDependency dependency) {
+        String source = dependency.getClassName();
+        acceptAll(source, dependency.getAnnotations(), DependencyKind.ANNOTATION);
+        acceptAll(source, dependency.getSuperClasses(), DependencyKind.SUPER_CLASS);
+        acceptAll(source, dependency.getInterfaces(), DependencyKind.INTERFACE);
+        acceptAll(source, dependency.getFields(), DependencyKind.FIELD);
+        acceptAll(source, dependency.getSignatures(), DependencyKind.SIGNATURE);
+        acceptAll(source, dependency.getConstPool(), DependencyKind.CONST_POOL);
+    }
+
+    /**
+     * 同一来源的多条依赖边
+     *
+     * @param source  类名
+     * @param targets 被依赖的类名
+     * @param kind    依赖来源
+     */
+    default void acceptAll(String source, Set<String> targets, DependencyKind kind) {
+        for (String target : targets) {
+            accept(source, target, kind);
+        }
+    }
+}
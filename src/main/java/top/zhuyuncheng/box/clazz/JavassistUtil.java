@@ -1,63 +1,222 @@
 package top.zhuyuncheng.box.clazz;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 
-import javassist.ClassClassPath;
-import javassist.ClassPool;
 import javassist.CtClass;
-import javassist.CtMethod;
 import javassist.NotFoundException;
 import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.BadBytecode;
+import javassist.bytecode.BootstrapMethodsAttribute;
 import javassist.bytecode.ClassFile;
+import javassist.bytecode.CodeAttribute;
+import javassist.bytecode.CodeIterator;
+import javassist.bytecode.ConstPool;
+import javassist.bytecode.ExceptionTable;
+import javassist.bytecode.ExceptionsAttribute;
 import javassist.bytecode.FieldInfo;
 import javassist.bytecode.MethodInfo;
+import javassist.bytecode.Opcode;
+import javassist.bytecode.SignatureAttribute;
 import javassist.bytecode.annotation.Annotation;
 import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.reader.SymbolTable;
 
 /**
  * 通过javassist库获取类的依赖
  */
 @Slf4j
 public final class JavassistUtil {
+    /**
+     * 依赖提取规则的版本，提取结果变化时加1，持久化的分析结果（如DependencyIndex）据此判断是否失效
+     */
+    public static final int ANALYZER_VERSION = 3;
+
+    private static volatile ClassPoolProvider classPoolProvider = new CachingClassPoolProvider();
+    private static volatile AnalysisBackend backend = AnalysisBackend.JAVASSIST;
+    private static volatile AnalysisListener analysisListener = AnalysisListener.NOOP;
 
     /**
      * 获取类下所有的依赖（注解、父类、接口、字段、方法声明、代码）
      */
     public static Set<String> getAllDependency(String classPath) throws NotFoundException, ClassNotFoundException {
-        final Set<String> set = Sets.newHashSet();
-        set.addAll(getClassAnnotations(classPath));
-        set.addAll(getSuperClass(classPath));
-        set.addAll(getInterface(classPath));
-        set.addAll(getFieldsType(classPath));
-        set.addAll(getMethodSignatureClass(classPath));
-        set.addAll(getClassRelyClass(classPath));
-        return set;
+        return analyze(classPath).all();
+    }
+
+    /**
+     * 分析类的依赖，只解析一次ClassFile，结果按分类返回
+     */
+    public static ClassDependency analyze(String classPath) throws NotFoundException {
+        try {
+            if (backend == AnalysisBackend.STREAMING) {
+                return analyzeStreaming(locate(classPath));
+            }
+            return analyze(getClassFile(classPath));
+        } catch (NotFoundException | RuntimeException e) {
+            analysisListener.onFailure(classPath, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取字节码的所有依赖，不加载类
+     */
+    public static Set<String> getAllDependency(byte[] bytes) throws IOException {
+        return analyze(bytes).all();
+    }
+
+    public static Set<String> getAllDependency(InputStream in) throws IOException {
+        return analyze(in).all();
+    }
+
+    public static Set<String> getAllDependency(ByteBuffer buffer) throws IOException {
+        return analyze(buffer).all();
+    }
+
+    public static Set<String> getAllDependency(Path path) throws IOException {
+        return analyze(path).all();
+    }
+
+    /**
+     * 分析字节码的依赖，不加载类
+     * 字节码来源未知，失败时不通知{@link AnalysisListener#onFailure(String, Throwable)}，由调用方处理
+     */
+    public static ClassDependency analyze(byte[] bytes) throws IOException {
+        return analyze(ByteBuffer.wrap(bytes));
+    }
+
+    public static ClassDependency analyze(InputStream in) throws IOException {
+        if (backend == AnalysisBackend.STREAMING) {
+            return analyzeStreaming(ByteBuffer.wrap(ByteStreams.toByteArray(in)));
+        }
+        return analyze(readClassFile(in));
+    }
+
+    public static ClassDependency analyze(ByteBuffer buffer) throws IOException {
+        if (backend == AnalysisBackend.STREAMING) {
+            return analyzeStreaming(buffer);
+        }
+        return analyze(readClassFile(buffer));
+    }
+
+    public static ClassDependency analyze(Path path) throws IOException {
+        try {
+            if (backend == AnalysisBackend.STREAMING) {
+                return analyzeStreaming(ByteBuffer.wrap(Files.readAllBytes(path)));
+            }
+            return analyze(readClassFile(path));
+        } catch (IOException | RuntimeException e) {
+            analysisListener.onFailure(path.toString(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 分析类的依赖，每条依赖边直接推送给sink，不构建Set
+     * 始终使用{@link AnalysisBackend#STREAMING}方式读取字节码
+     */
+    public static void analyze(String classPath, EdgeSink sink) throws NotFoundException {
+        try {
+            analyzeStreaming(locate(classPath), sink);
+        } catch (NotFoundException | RuntimeException e) {
+            analysisListener.onFailure(classPath, e);
+            throw e;
+        }
+    }
+
+    public static void analyze(ByteBuffer buffer, EdgeSink sink) {
+        analyzeStreaming(buffer, sink);
+    }
+
+    public static void analyze(Path path, EdgeSink sink) throws IOException {
+        try {
+            analyzeStreaming(ByteBuffer.wrap(Files.readAllBytes(path)), sink);
+        } catch (IOException | RuntimeException e) {
+            analysisListener.onFailure(path.toString(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * 分析ClassFile的依赖
+     */
+    public static ClassDependency analyze(ClassFile classFile) {
+        AnalysisListener listener = analysisListener;
+        if (listener == AnalysisListener.NOOP) {
+            return extract(classFile);
+        }
+        long start = System.nanoTime();
+        ClassDependency dependency = extract(classFile);
+        listener.onExtract(dependency.getClassName(), System.nanoTime() - start);
+        return dependency;
+    }
+
+    private static ClassDependency analyzeStreaming(ByteBuffer buffer) {
+        AnalysisListener listener = analysisListener;
+        if (listener == AnalysisListener.NOOP) {
+            return StreamingAnalyzer.analyze(buffer);
+        }
+        long start = System.nanoTime();
+        ClassDependency dependency = StreamingAnalyzer.analyze(buffer);
+        listener.onExtract(dependency.getClassName(), System.nanoTime() - start);
+        return dependency;
+    }
+
+    private static void analyzeStreaming(ByteBuffer buffer, EdgeSink sink) {
+        AnalysisListener listener = analysisListener;
+        if (listener == AnalysisListener.NOOP) {
+            StreamingAnalyzer.analyze(buffer, sink);
+            return;
+        }
+        long start = System.nanoTime();
+        String className = StreamingAnalyzer.analyze(buffer, sink);
+        listener.onExtract(className, System.nanoTime() - start);
+    }
+
+    private static ClassDependency extract(ClassFile classFile) {
+        return ClassDependency.builder()
+                .className(Descriptors.toClassName(classFile.getName()))
+                .annotations(getClassAnnotations(classFile))
+                .superClasses(getSuperClass(classFile))
+                .interfaces(getInterface(classFile))
+                .fields(getFieldsType(classFile))
+                .signatures(getMethodSignatureClass(classFile))
+                .constPool(getClassRelyClass(classFile))
+                .build();
     }
 
     /**
      * 获取类注解
      */
     public static Set<String> getClassAnnotations(String classPath) throws NotFoundException {
+        return getClassAnnotations(getClassFile(classPath));
+    }
+
+    public static Set<String> getClassAnnotations(ClassFile classFile) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
         AnnotationsAttribute attribute = (AnnotationsAttribute) classFile.getAttribute(AnnotationsAttribute.visibleTag);
         if (attribute != null) {
             Annotation[] annotations = attribute.getAnnotations();
             for (Annotation annotation : annotations) {
-                set.add(annotation.getTypeName());
+                set.add(Descriptors.toClassName(annotation.getTypeName()));
             }
         }
-
-        // 删除缓存
-        ctClass.detach();
-
         return set;
     }
 
@@ -65,18 +224,23 @@ public final class JavassistUtil {
      * 获取父类
      */
     public static Set<String> getSuperClass(String classPath) throws NotFoundException {
+        if (backend == AnalysisBackend.STREAMING) {
+            return getSuperClass(locate(classPath));
+        }
+        return getSuperClass(getClassFile(classPath));
+    }
+
+    public static Set<String> getSuperClass(ByteBuffer buffer) {
+        return StreamingAnalyzer.getSuperClass(buffer);
+    }
+
+    public static Set<String> getSuperClass(ClassFile classFile) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
         String superClass = classFile.getSuperclass();
         if (!"".equals(superClass) && superClass != null && !set.contains(superClass)) {
-            set.add(superClass);
+            set.add(Descriptors.toClassName(superClass));
         }
-
-        // 删除缓存
-        ctClass.detach();
-
         return set;
     }
 
@@ -84,21 +248,26 @@ public final class JavassistUtil {
      * 获取接口
      */
     public static Set<String> getInterface(String classPath) throws NotFoundException {
+        if (backend == AnalysisBackend.STREAMING) {
+            return getInterface(locate(classPath));
+        }
+        return getInterface(getClassFile(classPath));
+    }
+
+    public static Set<String> getInterface(ByteBuffer buffer) {
+        return StreamingAnalyzer.getInterface(buffer);
+    }
+
+    public static Set<String> getInterface(ClassFile classFile) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
         String[] interfaces = classFile.getInterfaces();
         if (interfaces != null) {
             for (String face : interfaces) {
-                String className = getClassName(face);
+                String className = Descriptors.toClassName(face);
                 set.add(className);
             }
         }
-
-        // 删除缓存
-        ctClass.detach();
-
         return set;
     }
 
@@ -106,32 +275,26 @@ public final class JavassistUtil {
      * 获取字段类型
      */
     public static Set<String> getFieldsType(String classPath) throws NotFoundException {
-        Set<String> set = Sets.newHashSet();
+        if (backend == AnalysisBackend.STREAMING) {
+            return getFieldsType(locate(classPath));
+        }
+        return getFieldsType(getClassFile(classPath));
+    }
 
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
+    public static Set<String> getFieldsType(ByteBuffer buffer) {
+        return StreamingAnalyzer.getFieldsType(buffer);
+    }
+
+    public static Set<String> getFieldsType(ClassFile classFile) {
+        Set<String> set = Sets.newHashSet();
 
         List<FieldInfo> fieldInfoList = classFile.getFields();
         if (fieldInfoList != null) {
             for (FieldInfo fieldInfo : fieldInfoList) {
-                String descriptor = fieldInfo.getDescriptor();
-                if (descriptor.startsWith("L") && descriptor.endsWith(";")) {
-                    String className = descriptor.substring(1, descriptor.length() - 1);
-                    className = getClassName(className);
-                    set.add(className);
-                }
-
-                if (descriptor.startsWith("[L") && descriptor.endsWith(";")) {
-                    String className = descriptor.substring(2, descriptor.length() - 1);
-                    className = getClassName(className);
-                    set.add(className);
-                }
+                extractClassNames(fieldInfo.getDescriptor(),
+                        (SignatureAttribute) fieldInfo.getAttribute(SignatureAttribute.tag), set);
             }
         }
-
-        // 删除缓存
-        ctClass.detach();
-
         return set;
     }
 
@@ -139,25 +302,28 @@ public final class JavassistUtil {
      * 遍历代码内使用的类，包含方法实现里使用的类，不包含方法签名里的类
      */
     public static Set<String> getClassRelyClass(String classPath) throws NotFoundException {
+        if (backend == AnalysisBackend.STREAMING) {
+            return getClassRelyClass(locate(classPath));
+        }
+        return getClassRelyClass(getClassFile(classPath));
+    }
+
+    public static Set<String> getClassRelyClass(ByteBuffer buffer) {
+        return StreamingAnalyzer.getClassRelyClass(buffer);
+    }
+
+    public static Set<String> getClassRelyClass(ClassFile classFile) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
         Set<String> classNames = classFile.getConstPool()
                 .getClassNames();
         for (String className : classNames) {
             if (className.startsWith("[L")) {
-                className = className.substring(2, className.length() - 1);
-            } else if (className.startsWith("[")) {
-                continue;
+                set.add(SymbolTable.global().intern(className, 2, className.length() - 1));
+            } else if (!className.startsWith("[")) {
+                set.add(Descriptors.toClassName(className));
             }
-            className = getClassName(className);
-            set.add(className);
         }
-
-        // 删除缓存
-        ctClass.detach();
-
         return set;
     }
 
@@ -165,72 +331,380 @@ public final class JavassistUtil {
      * 获取方法声明的参数和返回值包含的所有类
      */
     public static Set<String> getMethodSignatureClass(String classPath) throws NotFoundException {
+        return getMethodSignatureClass(getClassFile(classPath));
+    }
+
+    public static Set<String> getMethodSignatureClass(ClassFile classFile) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
-        CtMethod[] declaredMethods = ctClass.getDeclaredMethods();
-        for (CtMethod declaredMethod : declaredMethods) {
-            MethodInfo methodInfo = classFile.getMethod(declaredMethod.getName());
-            String descriptor = methodInfo.getDescriptor();
-            extractClassNames(descriptor, set);
+        List<MethodInfo> methods = classFile.getMethods();
+        for (MethodInfo methodInfo : methods) {
+            if (methodInfo.isMethod()) {
+                extractClassNames(methodInfo.getDescriptor(),
+                        (SignatureAttribute) methodInfo.getAttribute(SignatureAttribute.tag), set);
+            }
         }
-        // 删除缓存
-        ctClass.detach();
         return set;
     }
 
+    /**
+     * 获取方法声明的参数和返回值包含的所有类，包含所有同名重载方法
+     */
     public static Set<String> getMethodSignatureClass(String classPath, String methodName) throws NotFoundException {
+        return getMethodSignatureClass(getClassFile(classPath), methodName);
+    }
+
+    public static Set<String> getMethodSignatureClass(ClassFile classFile, String methodName) {
+        Set<String> set = Sets.newHashSet();
+
+        List<MethodInfo> methods = classFile.getMethods();
+        for (MethodInfo methodInfo : methods) {
+            if (methodInfo.getName().equals(methodName)) {
+                extractClassNames(methodInfo.getDescriptor(),
+                        (SignatureAttribute) methodInfo.getAttribute(SignatureAttribute.tag), set);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 获取指定重载方法声明包含的所有类
+     *
+     * @param methodName 方法名
+     * @param descriptor 方法描述符，如(Ljava/lang/String;)V
+     */
+    public static Set<String> getMethodSignatureClass(String classPath, String methodName, String descriptor) throws NotFoundException {
+        return getMethodSignatureClass(getClassFile(classPath), methodName, descriptor);
+    }
+
+    public static Set<String> getMethodSignatureClass(ClassFile classFile, String methodName, String descriptor) {
         Set<String> set = Sets.newHashSet();
-        CtClass ctClass = getCtClass(classPath);
-        ClassFile classFile = ctClass.getClassFile();
 
-        MethodInfo methodInfo = classFile.getMethod(methodName);
-        String descriptor = methodInfo.getDescriptor();
-        extractClassNames(descriptor, set);
+        MethodInfo methodInfo = getMethod(classFile, methodName, descriptor);
+        if (methodInfo != null) {
+            extractClassNames(methodInfo.getDescriptor(),
+                    (SignatureAttribute) methodInfo.getAttribute(SignatureAttribute.tag), set);
+        }
+        return set;
+    }
+
+    /**
+     * 获取每个方法（含构造方法、静态初始化）的依赖，key为方法名+描述符
+     */
+    public static Map<String, MethodDependency> getMethodDependencies(String classPath) throws NotFoundException {
+        return getMethodDependencies(getClassFile(classPath));
+    }
+
+    public static Map<String, MethodDependency> getMethodDependencies(ClassFile classFile) {
+        Map<String, MethodDependency> map = Maps.newLinkedHashMap();
+
+        List<MethodInfo> methods = classFile.getMethods();
+        BootstrapMethodsAttribute bootstrap = getBootstrapMethods(classFile);
+        for (MethodInfo methodInfo : methods) {
+            MethodDependency dependency = getMethodDependency(methodInfo, bootstrap);
+            map.put(dependency.key(), dependency);
+        }
+        return map;
+    }
+
+    /**
+     * 获取指定重载方法的依赖，方法不存在时返回null
+     */
+    public static MethodDependency getMethodDependency(ClassFile classFile, String methodName, String descriptor) {
+        MethodInfo methodInfo = getMethod(classFile, methodName, descriptor);
+        return methodInfo == null ? null : getMethodDependency(methodInfo, getBootstrapMethods(classFile));
+    }
+
+    private static BootstrapMethodsAttribute getBootstrapMethods(ClassFile classFile) {
+        return (BootstrapMethodsAttribute) classFile.getAttribute(BootstrapMethodsAttribute.tag);
+    }
+
+    private static MethodDependency getMethodDependency(MethodInfo methodInfo, BootstrapMethodsAttribute bootstrap) {
+        Set<String> signatures = Sets.newHashSet();
+        extractClassNames(methodInfo.getDescriptor(),
+                (SignatureAttribute) methodInfo.getAttribute(SignatureAttribute.tag), signatures);
+        ExceptionsAttribute exceptions = methodInfo.getExceptionsAttribute();
+        if (exceptions != null && exceptions.getExceptions() != null) {
+            Collections.addAll(signatures, exceptions.getExceptions());
+        }
+
+        return MethodDependency.builder()
+                .name(methodInfo.getName())
+                .descriptor(methodInfo.getDescriptor())
+                .signatures(signatures)
+                .body(getMethodBodyClass(methodInfo, bootstrap))
+                .build();
+    }
 
-        // 删除缓存
-        ctClass.detach();
+    /**
+     * 遍历方法体指令引用的类
+     */
+    private static Set<String> getMethodBodyClass(MethodInfo methodInfo, BootstrapMethodsAttribute bootstrap) {
+        Set<String> set = Sets.newHashSet();
+        CodeAttribute code = methodInfo.getCodeAttribute();
+        if (code == null) {
+            return set;
+        }
 
+        ConstPool constPool = methodInfo.getConstPool();
+        CodeIterator iterator = code.iterator();
+        while (iterator.hasNext()) {
+            int index;
+            try {
+                index = iterator.next();
+            } catch (BadBytecode e) {
+                log.warn("Bad bytecode in {}{}", methodInfo.getName(), methodInfo.getDescriptor(), e);
+                break;
+            }
+            int opcode = iterator.byteAt(index);
+            switch (opcode) {
+                case Opcode.INVOKEVIRTUAL:
+                case Opcode.INVOKESPECIAL:
+                case Opcode.INVOKESTATIC:
+                case Opcode.INVOKEINTERFACE:
+                case Opcode.GETFIELD:
+                case Opcode.PUTFIELD:
+                case Opcode.GETSTATIC:
+                case Opcode.PUTSTATIC:
+                    addClassInfo(constPool, constPool.getMemberClass(iterator.u16bitAt(index + 1)), set);
+                    break;
+                case Opcode.NEW:
+                case Opcode.ANEWARRAY:
+                case Opcode.CHECKCAST:
+                case Opcode.INSTANCEOF:
+                case Opcode.MULTIANEWARRAY:
+                    addClassInfo(constPool, iterator.u16bitAt(index + 1), set);
+                    break;
+                case Opcode.LDC:
+                    addLdcClass(constPool, iterator.byteAt(index + 1), set);
+                    break;
+                case Opcode.LDC_W:
+                    addLdcClass(constPool, iterator.u16bitAt(index + 1), set);
+                    break;
+                case Opcode.INVOKEDYNAMIC:
+                    addInvokeDynamic(constPool, bootstrap, iterator.u16bitAt(index + 1), set);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        ExceptionTable exceptionTable = code.getExceptionTable();
+        for (int i = 0; i < exceptionTable.size(); i++) {
+            int catchType = exceptionTable.catchType(i);
+            if (catchType != 0) {
+                addClassInfo(constPool, catchType, set);
+            }
+        }
         return set;
     }
 
     /**
-     * 获取默认的ClassPool
+     * invokedynamic：调用点类型（lambda的函数式接口、捕获的参数）、引导方法以及引导参数中的MethodHandle/MethodType/类常量，
+     * 对于LambdaMetafactory即lambda实现方法或方法引用的目标
      */
-    public static CtClass getCtClass(String classPath) throws NotFoundException {
-        try {
-            ClassPool classPool = new ClassPool(true);
-            // 为防止项目被打成jar包，请使用该语句
-            classPool.insertClassPath(new ClassClassPath(Thread.currentThread()
-                    .getContextClassLoader()
-                    .loadClass(classPath)));
-            return classPool.getCtClass(classPath);
-        } catch (ClassNotFoundException e) {
-            e.printStackTrace();
+    private static void addInvokeDynamic(ConstPool constPool, BootstrapMethodsAttribute bootstrap, int index,
+                                         Set<String> set) {
+        int nameAndType = constPool.getInvokeDynamicNameAndType(index);
+        Descriptors.collectClassNames(constPool.getUtf8Info(constPool.getNameAndTypeDescriptor(nameAndType)), set);
+        if (bootstrap == null) {
+            return;
+        }
+        BootstrapMethodsAttribute.BootstrapMethod method = bootstrap.getMethods()[constPool.getInvokeDynamicBootstrap(index)];
+        addMethodHandle(constPool, method.methodRef, set);
+        for (int argument : method.arguments) {
+            switch (constPool.getTag(argument)) {
+                case ConstPool.CONST_MethodHandle:
+                    addMethodHandle(constPool, argument, set);
+                    break;
+                case ConstPool.CONST_MethodType:
+                    Descriptors.collectClassNames(constPool.getUtf8Info(constPool.getMethodTypeInfo(argument)), set);
+                    break;
+                case ConstPool.CONST_Class:
+                    addClassInfo(constPool, argument, set);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void addMethodHandle(ConstPool constPool, int index, Set<String> set) {
+        int member = constPool.getMethodHandleIndex(index);
+        addClassInfo(constPool, constPool.getMemberClass(member), set);
+        int nameAndType = constPool.getMemberNameAndType(member);
+        Descriptors.collectClassNames(constPool.getUtf8Info(constPool.getNameAndTypeDescriptor(nameAndType)), set);
+    }
+
+    private static void addLdcClass(ConstPool constPool, int index, Set<String> set) {
+        if (constPool.getTag(index) == ConstPool.CONST_Class) {
+            addClassInfo(constPool, index, set);
+        }
+    }
+
+    private static void addClassInfo(ConstPool constPool, int classIndex, Set<String> set) {
+        Descriptors.collectClassNames(constPool.getClassInfoByDescriptor(classIndex), set);
+    }
+
+    private static MethodInfo getMethod(ClassFile classFile, String methodName, String descriptor) {
+        List<MethodInfo> methods = classFile.getMethods();
+        for (MethodInfo methodInfo : methods) {
+            if (methodInfo.getName().equals(methodName) && methodInfo.getDescriptor().equals(descriptor)) {
+                return methodInfo;
+            }
         }
         return null;
     }
 
     /**
-     * 过滤类名
+     * 指定分析方式，默认{@link AnalysisBackend#JAVASSIST}
+     */
+    public static void setBackend(AnalysisBackend analysisBackend) {
+        backend = Objects.requireNonNull(analysisBackend);
+    }
+
+    public static AnalysisBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * 注册监听，同时传递给当前的ClassPoolProvider；传入{@link AnalysisListener#NOOP}取消
      */
-    private static void extractClassNames(String descriptor, Set<String> set) {
-        String reg = "(L.+?;)";
-        Pattern pattern = Pattern.compile(reg);
-        Matcher matcher = pattern.matcher(descriptor);
-        while (matcher.find()) {
-            String className = matcher.group();
-            className = className.substring(1, className.length() - 1);
-            className = getClassName(className);
-            set.add(className);
+    public static void setAnalysisListener(AnalysisListener listener) {
+        analysisListener = Objects.requireNonNull(listener);
+        classPoolProvider.setAnalysisListener(listener);
+    }
+
+    public static AnalysisListener getAnalysisListener() {
+        return analysisListener;
+    }
+
+    /**
+     * 指定ClassPool管理
+     */
+    public static void setClassPoolProvider(ClassPoolProvider provider) {
+        provider.setAnalysisListener(analysisListener);
+        classPoolProvider = provider;
+    }
+
+    public static ClassPoolProvider getClassPoolProvider() {
+        return classPoolProvider;
+    }
+
+    /**
+     * 获取CtClass，ClassPool按ClassLoader复用；返回缓存的共享实例，不能修改或detach
+     */
+    public static CtClass getCtClass(String classPath) throws NotFoundException {
+        return classPoolProvider.getCtClass(classPath, classLoader());
+    }
+
+    /**
+     * 获取ClassFile，按ClassLoader缓存；返回共享实例，不能修改
+     */
+    public static ClassFile getClassFile(String classPath) throws NotFoundException {
+        return classPoolProvider.getClassFile(classPath, classLoader());
+    }
+
+    /**
+     * 从字节码解析ClassFile，不经过ClassLoader
+     */
+    public static ClassFile readClassFile(byte[] bytes) throws IOException {
+        return readClassFile(new ByteArrayInputStream(bytes));
+    }
+
+    public static ClassFile readClassFile(InputStream in) throws IOException {
+        AnalysisListener listener = analysisListener;
+        long start = listener == AnalysisListener.NOOP ? 0 : System.nanoTime();
+        ClassFile classFile = new ClassFile(new DataInputStream(in instanceof BufferedInputStream || in instanceof ByteArrayInputStream
+                ? in : new BufferedInputStream(in)));
+        if (listener != AnalysisListener.NOOP) {
+            listener.onParse(classFile.getName(), System.nanoTime() - start);
+        }
+        return classFile;
+    }
+
+    public static ClassFile readClassFile(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            return readClassFile(new ByteArrayInputStream(buffer.array(),
+                    buffer.arrayOffset() + buffer.position(), buffer.remaining()));
+        }
+        return readClassFile(new ByteBufferInputStream(buffer.duplicate()));
+    }
+
+    public static ClassFile readClassFile(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return readClassFile(in);
+        }
+    }
+
+    /**
+     * 通过ClassLoader读取字节码资源，不加载类
+     */
+    private static ByteBuffer locate(String classPath) throws NotFoundException {
+        AnalysisListener listener = analysisListener;
+        if (listener == AnalysisListener.NOOP) {
+            return read(classPath);
         }
+        long start = System.nanoTime();
+        ByteBuffer buffer = read(classPath);
+        listener.onLocate(classPath, System.nanoTime() - start);
+        return buffer;
+    }
+
+    private static ByteBuffer read(String classPath) throws NotFoundException {
+        try (InputStream in = classLoader().getResourceAsStream(classPath.replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new NotFoundException(classPath);
+            }
+            return ByteBuffer.wrap(ByteStreams.toByteArray(in));
+        } catch (IOException e) {
+            throw new NotFoundException(classPath, e);
+        }
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : JavassistUtil.class.getClassLoader();
     }
 
     /**
-     * 路径替换
+     * 过滤类名，包含泛型Signature中的类
      */
-    private static String getClassName(String className) {
-        return className.replaceAll("/", ".");
+    private static void extractClassNames(String descriptor, SignatureAttribute signature, Set<String> set) {
+        Descriptors.collectClassNames(descriptor, set);
+        if (signature != null) {
+            Descriptors.collectClassNames(signature.getSignature(), set);
+        }
+    }
+
+    /**
+     * 直接读取ByteBuffer，不复制到数组
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
     }
-}
\ No newline at end of file
+}
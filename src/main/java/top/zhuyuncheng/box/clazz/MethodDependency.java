@@ -0,0 +1,42 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.util.Set;
+
+import com.google.common.collect.Sets;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 方法的依赖，以方法名+描述符区分重载
+ * {@link #getSignatures()} 方法声明（参数、返回值、异常、泛型Signature）
+ * {@link #getBody()}       方法体指令引用的类（方法调用、字段访问、new、checkcast、instanceof、类常量、catch、invokedynamic引导方法及参数）
+ */
+@Data
+@Builder
+public class MethodDependency {
+    private String name;
+    private String descriptor;
+    private Set<String> signatures;
+    private Set<String> body;
+
+    /**
+     * 方法名+描述符，如equals(Ljava/lang/Object;)Z
+     *
+     * @return
+     */
+    public String key() {
+        return name + descriptor;
+    }
+
+    /**
+     * 方法声明和方法体的依赖合集
+     *
+     * @return
+     */
+    public Set<String> all() {
+        Set<String> set = Sets.newHashSet(signatures);
+        set.addAll(body);
+        return set;
+    }
+}
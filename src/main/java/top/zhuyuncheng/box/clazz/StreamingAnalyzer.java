@@ -0,0 +1,192 @@
+package top.zhuyuncheng.box.clazz;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.common.collect.Sets;
+
+import top.zhuyuncheng.box.clazz.reader.ClassFileReader;
+import top.zhuyuncheng.box.clazz.reader.ClassFileVisitor;
+import top.zhuyuncheng.box.clazz.reader.SymbolTable;
+
+/**
+ * {@link AnalysisBackend#STREAMING}的实现，结果与javassist方式保持一致
+ */
+final class StreamingAnalyzer {
+
+    private StreamingAnalyzer() {
+    }
+
+    static ClassDependency analyze(ByteBuffer buffer) {
+        Collector collector = new Collector();
+        ClassFileReader.read(buffer, collector);
+        return ClassDependency.builder()
+                .className(collector.className)
+                .annotations(collector.annotations)
+                .superClasses(collector.superClasses)
+                .interfaces(collector.interfaces)
+                .fields(collector.fields)
+                .signatures(collector.signatures)
+                .constPool(collector.constPool)
+                .build();
+    }
+
+    /**
+     * 依赖边直接推送给sink，同一分类内去重，结果与{@link #analyze(ByteBuffer)}一致
+     */
+    static String analyze(ByteBuffer buffer, EdgeSink sink) {
+        Emitter emitter = new Emitter(sink);
+        ClassFileReader.read(buffer, emitter);
+        return emitter.className;
+    }
+
+    static Set<String> getSuperClass(ByteBuffer buffer) {
+        Collector collector = new Collector();
+        ClassFileReader.read(buffer, collector, ClassFileReader.SKIP_METHODS | ClassFileReader.SKIP_ATTRIBUTES);
+        return collector.superClasses;
+    }
+
+    static Set<String> getInterface(ByteBuffer buffer) {
+        Collector collector = new Collector();
+        ClassFileReader.read(buffer, collector, ClassFileReader.SKIP_METHODS | ClassFileReader.SKIP_ATTRIBUTES);
+        return collector.interfaces;
+    }
+
+    static Set<String> getFieldsType(ByteBuffer buffer) {
+        Collector collector = new Collector();
+        ClassFileReader.read(buffer, collector, ClassFileReader.SKIP_METHODS | ClassFileReader.SKIP_ATTRIBUTES);
+        return collector.fields;
+    }
+
+    static Set<String> getClassRelyClass(ByteBuffer buffer) {
+        Collector collector = new Collector();
+        ClassFileReader.read(buffer, collector, ClassFileReader.SKIP_METHODS | ClassFileReader.SKIP_ATTRIBUTES);
+        return collector.constPool;
+    }
+
+    private static final class Collector implements ClassFileVisitor {
+        private final Set<String> annotations = Sets.newHashSet();
+        private final Set<String> superClasses = Sets.newHashSet();
+        private final Set<String> interfaces = Sets.newHashSet();
+        private final Set<String> fields = Sets.newHashSet();
+        private final Set<String> signatures = Sets.newHashSet();
+        private final Set<String> constPool = Sets.newHashSet();
+        private String className;
+
+        @Override
+        public void visitConstPoolClass(String name) {
+            if (name.startsWith("[L")) {
+                name = SymbolTable.global().intern(name, 2, name.length() - 1);
+            } else if (name.startsWith("[")) {
+                return;
+            }
+            constPool.add(name);
+        }
+
+        @Override
+        public void visitClass(int access, String name, String superClass) {
+            this.className = name;
+            if (superClass != null && !superClass.isEmpty()) {
+                superClasses.add(superClass);
+            }
+        }
+
+        @Override
+        public void visitInterface(String name) {
+            interfaces.add(name);
+        }
+
+        @Override
+        public void visitField(int access, String name, String descriptor, String signature) {
+            Descriptors.collectClassNames(descriptor, fields);
+            Descriptors.collectClassNames(signature, fields);
+        }
+
+        @Override
+        public void visitMethod(int access, String name, String descriptor, String signature) {
+            if (!"<init>".equals(name) && !"<clinit>".equals(name)) {
+                Descriptors.collectClassNames(descriptor, signatures);
+                Descriptors.collectClassNames(signature, signatures);
+            }
+        }
+
+        @Override
+        public void visitClassAnnotation(String descriptor, boolean visible) {
+            if (visible) {
+                Descriptors.collectClassNames(descriptor, annotations);
+            }
+        }
+    }
+
+    /**
+     * 回调顺序保证同一分类的依赖连续出现，只需要一个去重集合，分类切换时清空
+     */
+    private static final class Emitter implements ClassFileVisitor {
+        private final EdgeSink sink;
+        private final Set<String> seen = Sets.newHashSet();
+        private final Consumer<String> fields = target -> emit(target, DependencyKind.FIELD);
+        private final Consumer<String> signatures = target -> emit(target, DependencyKind.SIGNATURE);
+        private final Consumer<String> annotations = target -> emit(target, DependencyKind.ANNOTATION);
+        private DependencyKind kind;
+        private String className;
+
+        private Emitter(EdgeSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void visitConstPoolClass(String name) {
+            if (name.startsWith("[L")) {
+                name = SymbolTable.global().intern(name, 2, name.length() - 1);
+            } else if (name.startsWith("[")) {
+                return;
+            }
+            emit(name, DependencyKind.CONST_POOL);
+        }
+
+        @Override
+        public void visitClass(int access, String name, String superClass) {
+            this.className = name;
+            if (superClass != null && !superClass.isEmpty()) {
+                emit(superClass, DependencyKind.SUPER_CLASS);
+            }
+        }
+
+        @Override
+        public void visitInterface(String name) {
+            emit(name, DependencyKind.INTERFACE);
+        }
+
+        @Override
+        public void visitField(int access, String name, String descriptor, String signature) {
+            Descriptors.collectClassNames(descriptor, fields);
+            Descriptors.collectClassNames(signature, fields);
+        }
+
+        @Override
+        public void visitMethod(int access, String name, String descriptor, String signature) {
+            if (!"<init>".equals(name) && !"<clinit>".equals(name)) {
+                Descriptors.collectClassNames(descriptor, signatures);
+                Descriptors.collectClassNames(signature, signatures);
+            }
+        }
+
+        @Override
+        public void visitClassAnnotation(String descriptor, boolean visible) {
+            if (visible) {
+                Descriptors.collectClassNames(descriptor, annotations);
+            }
+        }
+
+        private void emit(String target, DependencyKind targetKind) {
+            if (targetKind != kind) {
+                kind = targetKind;
+                seen.clear();
+            }
+            if (seen.add(target)) {
+                sink.accept(className, target, targetKind);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package top.zhuyuncheng.box.clazz.edge;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.google.common.collect.Lists;
+
+import top.zhuyuncheng.box.clazz.DependencyKind;
+import top.zhuyuncheng.box.clazz.EdgeSink;
+
+/**
+ * 读取{@link EdgeFileWriter}写入的边文件，按写入顺序回放给{@link EdgeSink}
+ */
+public final class EdgeFileReader {
+    private static final DependencyKind[] KINDS = DependencyKind.values();
+
+    private EdgeFileReader() {
+    }
+
+    /**
+     * 读取边文件
+     *
+     * @param path 边文件
+     * @param sink 边的接收方
+     * @return 边数
+     */
+    public static long read(Path path, EdgeSink sink) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in, sink);
+        }
+    }
+
+    public static long read(InputStream in, EdgeSink sink) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        if (data.readInt() != EdgeFileWriter.MAGIC || data.readInt() != EdgeFileWriter.VERSION) {
+            throw new IOException("Incompatible edge file");
+        }
+        List<String> strings = Lists.newArrayList();
+        String source = null;
+        long count = 0;
+        int header;
+        while ((header = data.read()) >= 0) {
+            if ((header & EdgeFileWriter.SAME_SOURCE) == 0) {
+                source = readRef(data, strings);
+            } else if (source == null) {
+                throw new IOException("Missing source at edge " + count);
+            }
+            sink.accept(source, readRef(data, strings), KINDS[header & EdgeFileWriter.KIND_MASK]);
+            count++;
+        }
+        return count;
+    }
+
+    private static String readRef(DataInputStream data, List<String> strings) throws IOException {
+        int ref = readVarint(data);
+        if (ref > 0) {
+            return strings.get(ref - 1);
+        }
+        byte[] bytes = new byte[readVarint(data)];
+        data.readFully(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+
+    private static int readVarint(DataInputStream data) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = data.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
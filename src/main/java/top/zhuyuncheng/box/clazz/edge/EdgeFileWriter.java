@@ -0,0 +1,214 @@
+package top.zhuyuncheng.box.clazz.edge;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import top.zhuyuncheng.box.clazz.DependencyKind;
+import top.zhuyuncheng.box.clazz.EdgeSink;
+
+/**
+ * 将依赖边流式写入紧凑的二进制文件，可以直接作为扫描的{@link EdgeSink}，多线程写入安全
+ * <p>
+ * 类名首次出现时写入原文并分配id，之后只写varint id；与上一条边来源相同时省略来源。
+ * 每个线程先缓存当前来源的边，来源变化、达到{@link #BLOCK_SIZE}或flush/close时整块写入，
+ * 多线程并发扫描时同一个类的边仍然连续，来源只写一次。
+ * flush/close会写出所有线程缓存的边，应在写入线程结束后调用。
+ * <p>
+ * 文件格式：
+ * <pre>
+ * magic(int) version(int)
+ * edges: header(byte：低3位为{@link DependencyKind}序号，{@link #SAME_SOURCE}位表示来源与上一条相同)
+ *        [source(ref)] target(ref)
+ * ref:   varint，0表示新字符串，后跟varint长度 + UTF-8；否则为id + 1
+ * </pre>
+ * 文件没有结束标记，读到末尾即结束。
+ */
+public final class EdgeFileWriter implements EdgeSink, Closeable {
+    static final int MAGIC = 0x54424445;
+    static final int VERSION = 1;
+    static final int KIND_MASK = 0x07;
+    static final int SAME_SOURCE = 0x08;
+    /**
+     * 每个线程最多缓存的边数，超过时先写出，边很多的类会分成多块
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private final OutputStream out;
+    private final Map<String, Integer> ids = Maps.newHashMap();
+    private final List<Block> blocks = Lists.newArrayList();
+    private final ThreadLocal<Block> localBlock = ThreadLocal.withInitial(this::newBlock);
+    private String lastSource;
+    private long edgeCount;
+
+    public EdgeFileWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, 64 * 1024);
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    public static EdgeFileWriter open(Path path) throws IOException {
+        return new EdgeFileWriter(Files.newOutputStream(path));
+    }
+
+    /**
+     * 缓存到当前线程的块中，不获取文件锁
+     */
+    @Override
+    public void accept(String source, String target, DependencyKind kind) {
+        Block block = localBlock.get();
+        // 锁只与flush/close竞争，锁顺序为block -> this
+        synchronized (block) {
+            if (block.size == BLOCK_SIZE || (block.size > 0 && !source.equals(block.source))) {
+                write(block);
+            }
+            block.add(source, target, kind);
+        }
+    }
+
+    /**
+     * 已写入的边数，不包括线程中尚未写出的边
+     *
+     * @return
+     */
+    public synchronized long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * 已写入的不同类名数
+     *
+     * @return
+     */
+    public synchronized int stringCount() {
+        return ids.size();
+    }
+
+    public void flush() throws IOException {
+        writeBlocks();
+        synchronized (this) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeBlocks();
+        synchronized (this) {
+            out.close();
+        }
+    }
+
+    private Block newBlock() {
+        Block block = new Block();
+        synchronized (this) {
+            blocks.add(block);
+        }
+        return block;
+    }
+
+    private void writeBlocks() {
+        List<Block> snapshot;
+        synchronized (this) {
+            snapshot = Lists.newArrayList(blocks);
+        }
+        for (Block block : snapshot) {
+            synchronized (block) {
+                write(block);
+            }
+        }
+    }
+
+    /**
+     * 整块写入并清空，调用方持有block的锁
+     */
+    private void write(Block block) {
+        if (block.size == 0) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                for (int i = 0; i < block.size; i++) {
+                    writeEdge(block.source, block.targets[i], block.kinds[i]);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        block.clear();
+    }
+
+    private void writeEdge(String source, String target, DependencyKind kind) throws IOException {
+        if (source.equals(lastSource)) {
+            out.write(kind.ordinal() | SAME_SOURCE);
+        } else {
+            out.write(kind.ordinal());
+            writeRef(source);
+            lastSource = source;
+        }
+        writeRef(target);
+        edgeCount++;
+    }
+
+    private void writeRef(String value) throws IOException {
+        Integer id = ids.get(value);
+        if (id != null) {
+            writeVarint(id + 1);
+            return;
+        }
+        ids.put(value, ids.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(0);
+        writeVarint(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * 一个线程缓存的同一来源的边
+     */
+    private static final class Block {
+        private final String[] targets = new String[BLOCK_SIZE];
+        private final DependencyKind[] kinds = new DependencyKind[BLOCK_SIZE];
+        private String source;
+        private int size;
+
+        private void add(String source, String target, DependencyKind kind) {
+            this.source = source;
+            targets[size] = target;
+            kinds[size] = kind;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(targets, 0, size, null);
+            source = null;
+            size = 0;
+        }
+    }
+}
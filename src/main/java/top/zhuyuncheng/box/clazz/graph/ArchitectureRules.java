@@ -0,0 +1,209 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * 基于{@link DependencyRollup}的架构规则检查：禁止依赖、分层、禁止循环依赖
+ * <p>
+ * 规则中的包/模块以{@link DependencyRollup#matching(String)}的模式表示。检查时每个模式只匹配一次，
+ * 规则编译为"来源BitSet + 禁止目标BitSet"，逐个来源与其依赖BitSet求交集。
+ */
+public final class ArchitectureRules {
+    private final List<Rule> rules;
+
+    private ArchitectureRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 检查所有规则
+     *
+     * @param rollup 包/模块依赖
+     * @return 所有违规，没有违规时为空
+     */
+    public List<RuleViolation> check(DependencyRollup rollup) {
+        Map<String, BitSet> matched = Maps.newHashMap();
+        List<RuleViolation> violations = Lists.newArrayList();
+        for (Rule rule : rules) {
+            rule.check(rollup, pattern -> matched.computeIfAbsent(pattern, rollup::matching), violations);
+        }
+        return violations;
+    }
+
+    public static final class Builder {
+        private final List<Rule> rules = Lists.newArrayList();
+
+        private Builder() {
+        }
+
+        /**
+         * source不能依赖target
+         *
+         * @param source 依赖方模式
+         * @param target 被依赖方模式
+         * @return
+         */
+        public Builder forbid(String source, String target) {
+            String description = source + " must not depend on " + target;
+            rules.add((rollup, matcher, violations) ->
+                    checkForbidden(rollup, matcher.apply(source), matcher.apply(target), description, violations));
+            return this;
+        }
+
+        /**
+         * 分层，从上到下排列，上层可以依赖下层，下层不能依赖上层；不属于任何层的包/模块不受限制
+         *
+         * @param layers 各层的模式，从上到下
+         * @return
+         */
+        public Builder layers(String... layers) {
+            List<String> ordered = ImmutableList.copyOf(layers);
+            String description = "layers " + String.join(" > ", ordered);
+            rules.add((rollup, matcher, violations) -> {
+                BitSet upper = new BitSet(rollup.size());
+                for (String layer : ordered) {
+                    BitSet current = matcher.apply(layer);
+                    checkForbidden(rollup, current, upper, description, violations);
+                    upper.or(current);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * 匹配的包/模块之间不能有循环依赖
+         *
+         * @param pattern 模式
+         * @return
+         */
+        public Builder noCycles(String pattern) {
+            String description = "no cycles in " + pattern;
+            rules.add((rollup, matcher, violations) -> {
+                for (BitSet component : components(rollup, matcher.apply(pattern))) {
+                    List<String> cycle = Lists.newArrayListWithCapacity(component.cardinality());
+                    for (int i = component.nextSetBit(0); i >= 0; i = component.nextSetBit(i + 1)) {
+                        cycle.add(rollup.name(i));
+                    }
+                    violations.add(RuleViolation.builder().rule(description).cycle(cycle).build());
+                }
+            });
+            return this;
+        }
+
+        public ArchitectureRules build() {
+            return new ArchitectureRules(ImmutableList.copyOf(rules));
+        }
+    }
+
+    private static void checkForbidden(DependencyRollup rollup, BitSet sources, BitSet targets, String description,
+                                       List<RuleViolation> violations) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        for (int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source + 1)) {
+            BitSet dependencies = rollup.dependencies(source);
+            if (!dependencies.intersects(targets)) {
+                continue;
+            }
+            BitSet hit = (BitSet) dependencies.clone();
+            hit.and(targets);
+            for (int target = hit.nextSetBit(0); target >= 0; target = hit.nextSetBit(target + 1)) {
+                violations.add(RuleViolation.builder()
+                        .rule(description)
+                        .source(rollup.name(source))
+                        .target(rollup.name(target))
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * 只在nodes范围内求强连通分量（迭代Tarjan），返回包含两个及以上节点的分量
+     */
+    private static List<BitSet> components(DependencyRollup rollup, BitSet nodes) {
+        int size = rollup.size();
+        int[] index = new int[size];
+        int[] low = new int[size];
+        int[] cursor = new int[size];
+        Arrays.fill(index, -1);
+        BitSet onStack = new BitSet(size);
+        Deque<Integer> stack = new ArrayDeque<>();
+        Deque<Integer> path = new ArrayDeque<>();
+        List<BitSet> result = Lists.newArrayList();
+        int counter = 0;
+
+        for (int root = nodes.nextSetBit(0); root >= 0; root = nodes.nextSetBit(root + 1)) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            index[root] = low[root] = counter++;
+            cursor[root] = 0;
+            stack.push(root);
+            onStack.set(root);
+            path.push(root);
+            while (!path.isEmpty()) {
+                int node = path.peek();
+                BitSet dependencies = rollup.dependencies(node);
+                int next = nextNode(dependencies, nodes, cursor[node]);
+                if (next >= 0) {
+                    cursor[node] = next + 1;
+                    if (index[next] < 0) {
+                        index[next] = low[next] = counter++;
+                        stack.push(next);
+                        onStack.set(next);
+                        path.push(next);
+                    } else if (onStack.get(next)) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                path.pop();
+                if (!path.isEmpty()) {
+                    int parent = path.peek();
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    BitSet component = new BitSet(size);
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack.clear(member);
+                        component.set(member);
+                    } while (member != node);
+                    if (component.cardinality() > 1) {
+                        result.add(component);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int nextNode(BitSet dependencies, BitSet nodes, int from) {
+        for (int i = dependencies.nextSetBit(from); i >= 0; i = dependencies.nextSetBit(i + 1)) {
+            if (nodes.get(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface Rule {
+        void check(DependencyRollup rollup, Function<String, BitSet> matcher, List<RuleViolation> violations);
+    }
+}
@@ -0,0 +1,288 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import javassist.NotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * 类的依赖图：传递依赖（带缓存）、强连通分量（循环依赖）
+ * <p>
+ * 每个类的直接依赖只解析一次；传递依赖按强连通分量计算，同一分量内的类共享同一个结果，
+ * 重复查询直接命中缓存。可达类的直接依赖在ForkJoinPool中并行解析。
+ */
+@Slf4j
+public class DependencyGraph {
+    private final Function<String, Set<String>> resolver;
+    private final Predicate<String> expandable;
+
+    private final Map<String, Set<String>> direct = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> closures = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> components = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolver   直接依赖解析
+     * @param expandable 是否展开该类的依赖，不展开的类视为叶子节点（如JDK类）
+     */
+    public DependencyGraph(Function<String, Set<String>> resolver, Predicate<String> expandable) {
+        this.resolver = Objects.requireNonNull(resolver);
+        this.expandable = Objects.requireNonNull(expandable);
+    }
+
+    /**
+     * 基于扫描结果构建，只展开扫描到的类
+     *
+     * @param dependencies 类名 -> 依赖
+     * @return
+     */
+    public static DependencyGraph of(Map<String, ClassDependency> dependencies) {
+        return new DependencyGraph(className -> {
+            ClassDependency dependency = dependencies.get(className);
+            return dependency == null ? Collections.emptySet() : dependency.all();
+        }, dependencies::containsKey);
+    }
+
+    /**
+     * 基于当前ClassLoader构建，通过{@link JavassistUtil#getAllDependency(String)}解析依赖
+     *
+     * @param expandable 是否展开该类的依赖
+     * @return
+     */
+    public static DependencyGraph fromClassPath(Predicate<String> expandable) {
+        return new DependencyGraph(className -> {
+            try {
+                return JavassistUtil.getAllDependency(className);
+            } catch (NotFoundException | ClassNotFoundException e) {
+                log.debug("Class not found {}", className);
+                return Collections.emptySet();
+            }
+        }, expandable);
+    }
+
+    /**
+     * 直接依赖（不包含自身）
+     *
+     * @param className 类名
+     * @return
+     */
+    public Set<String> dependencies(String className) {
+        Set<String> set = direct.get(className);
+        if (set == null) {
+            set = expandable.test(className) ? without(resolver.apply(className), className) : ImmutableSet.of();
+            Set<String> previous = direct.putIfAbsent(className, set);
+            if (previous != null) {
+                set = previous;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * 传递依赖，只有类处于循环依赖中时才包含自身
+     *
+     * @param className 类名
+     * @return
+     */
+    public Set<String> closure(String className) {
+        Set<String> set = closures.get(className);
+        if (set == null) {
+            traverse(Collections.singleton(className));
+            set = closures.get(className);
+        }
+        return set;
+    }
+
+    /**
+     * 类所在的强连通分量
+     *
+     * @param className 类名
+     * @return
+     */
+    public Set<String> component(String className) {
+        Set<String> set = components.get(className);
+        if (set == null) {
+            traverse(Collections.singleton(className));
+            set = components.get(className);
+        }
+        return set;
+    }
+
+    /**
+     * 从roots可达的所有循环依赖（包含两个及以上类的强连通分量）
+     *
+     * @param roots 起点
+     * @return
+     */
+    public List<Set<String>> cycles(Collection<String> roots) {
+        traverse(roots);
+        Set<Set<String>> seen = Sets.newIdentityHashSet();
+        List<Set<String>> cycles = Lists.newArrayList();
+        for (String root : roots) {
+            collectCycles(root, seen, cycles);
+        }
+        return cycles;
+    }
+
+    private void collectCycles(String root, Set<Set<String>> seen, List<Set<String>> cycles) {
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Set<String> component = components.get(stack.pop());
+            if (!seen.add(component)) {
+                continue;
+            }
+            if (component.size() > 1) {
+                cycles.add(component);
+            }
+            for (String member : component) {
+                for (String target : dependencies(member)) {
+                    if (!component.contains(target)) {
+                        stack.push(target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 先并行解析可达类的直接依赖，再用Tarjan算法计算强连通分量，
+     * 分量按逆拓扑序产出，依次计算并缓存传递依赖
+     */
+    private void traverse(Collection<String> roots) {
+        prefetch(roots);
+        tarjan(roots);
+    }
+
+    /**
+     * 串行执行：并发遍历时其他线程可能缓存当前线程栈中尚未出栈的类，
+     * 按缓存跳过会漏掉回边，把同一分量拆开并覆盖已缓存的结果
+     */
+    private synchronized void tarjan(Collection<String> roots) {
+        // 类名 -> {index, lowlink, 是否在栈中}
+        Map<String, int[]> index = Maps.newHashMap();
+        Deque<String> stack = new ArrayDeque<>();
+        Deque<Frame> frames = new ArrayDeque<>();
+        int counter = 0;
+
+        for (String root : roots) {
+            if (closures.containsKey(root) || index.containsKey(root)) {
+                continue;
+            }
+            index.put(root, new int[]{counter, counter++, 1});
+            stack.push(root);
+            frames.push(new Frame(root, dependencies(root).iterator()));
+
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                int[] node = index.get(frame.className);
+                if (frame.successors.hasNext()) {
+                    String target = frame.successors.next();
+                    if (closures.containsKey(target)) {
+                        continue;
+                    }
+                    int[] next = index.get(target);
+                    if (next == null) {
+                        index.put(target, new int[]{counter, counter++, 1});
+                        stack.push(target);
+                        frames.push(new Frame(target, dependencies(target).iterator()));
+                    } else if (next[2] == 1) {
+                        node[1] = Math.min(node[1], next[0]);
+                    }
+                    continue;
+                }
+
+                frames.pop();
+                if (!frames.isEmpty()) {
+                    int[] parent = index.get(frames.peek().className);
+                    parent[1] = Math.min(parent[1], node[1]);
+                }
+                if (node[1] == node[0]) {
+                    Set<String> members = Sets.newHashSet();
+                    String member;
+                    do {
+                        member = stack.pop();
+                        index.get(member)[2] = 0;
+                        members.add(member);
+                    } while (!member.equals(frame.className));
+                    memoize(members);
+                }
+            }
+        }
+    }
+
+    private void memoize(Set<String> members) {
+        ImmutableSet.Builder<String> closure = ImmutableSet.builder();
+        if (members.size() > 1) {
+            closure.addAll(members);
+        }
+        for (String member : members) {
+            for (String target : dependencies(member)) {
+                closure.add(target);
+                if (!members.contains(target)) {
+                    closure.addAll(closures.get(target));
+                }
+            }
+        }
+        Set<String> component = ImmutableSet.copyOf(members);
+        Set<String> result = closure.build();
+        for (String member : members) {
+            components.put(member, component);
+            closures.put(member, result);
+        }
+    }
+
+    /**
+     * 按层并行解析可达类的直接依赖
+     */
+    private void prefetch(Collection<String> roots) {
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        List<String> frontier = roots.stream()
+                .filter(root -> !closures.containsKey(root) && seen.add(root))
+                .collect(Collectors.toList());
+        while (!frontier.isEmpty()) {
+            frontier = frontier.parallelStream()
+                    .flatMap(className -> dependencies(className).stream())
+                    .filter(target -> !closures.containsKey(target) && seen.add(target))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static Set<String> without(Set<String> set, String className) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (String target : set) {
+            if (!target.equals(className)) {
+                builder.add(target);
+            }
+        }
+        return builder.build();
+    }
+
+    private static final class Frame {
+        private final String className;
+        private final Iterator<String> successors;
+
+        private Frame(String className, Iterator<String> successors) {
+            this.className = className;
+            this.successors = successors;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import top.zhuyuncheng.box.clazz.ClassDependency;
+
+/**
+ * 类依赖按包或模块汇总后的依赖图
+ * <p>
+ * 每个包/模块映射为int id，依赖以BitSet保存：dependencies[id]中置位的id即被依赖的包/模块，
+ * 规则检查（{@link ArchitectureRules}）只做BitSet的交集运算。不包含包/模块对自身的依赖。
+ */
+public final class DependencyRollup {
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final BitSet[] dependencies;
+    private final List<List<String>> members;
+    private final Map<String, ClassDependency> classes;
+    private final Function<String, String> grouping;
+
+    private DependencyRollup(String[] names, Map<String, Integer> ids, BitSet[] dependencies, List<List<String>> members,
+                             Map<String, ClassDependency> classes, Function<String, String> grouping) {
+        this.names = names;
+        this.ids = ids;
+        this.dependencies = dependencies;
+        this.members = members;
+        this.classes = classes;
+        this.grouping = grouping;
+    }
+
+    /**
+     * 按包汇总
+     *
+     * @param classes 类名 -> 依赖
+     * @return
+     */
+    public static DependencyRollup byPackage(Map<String, ClassDependency> classes) {
+        return of(classes, DependencyRollup::packageName);
+    }
+
+    /**
+     * 按模块汇总，模块由包前缀决定，匹配最长的前缀，不属于任何模块的类忽略
+     *
+     * @param classes  类名 -> 依赖
+     * @param prefixes 包前缀 -> 模块名，如com.example.order -> order
+     * @return
+     */
+    public static DependencyRollup byModule(Map<String, ClassDependency> classes, Map<String, String> prefixes) {
+        return of(classes, className -> {
+            String module = null;
+            int length = -1;
+            for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+                String prefix = entry.getKey();
+                if (prefix.length() > length && className.startsWith(prefix)
+                        && (className.length() == prefix.length() || className.charAt(prefix.length()) == '.')) {
+                    module = entry.getValue();
+                    length = prefix.length();
+                }
+            }
+            return module;
+        });
+    }
+
+    /**
+     * 按自定义分组汇总
+     *
+     * @param classes  类名 -> 依赖
+     * @param grouping 类名 -> 分组名，返回null的类忽略
+     * @return
+     */
+    public static DependencyRollup of(Map<String, ClassDependency> classes, Function<String, String> grouping) {
+        Map<String, Integer> ids = Maps.newHashMap();
+        List<String> names = Lists.newArrayList();
+        Map<String, Integer> classIds = Maps.newHashMap();
+        List<BitSet> dependencies = Lists.newArrayList();
+        List<List<String>> members = Lists.newArrayList();
+
+        for (ClassDependency dependency : classes.values()) {
+            int source = id(dependency.getClassName(), grouping, ids, names, classIds);
+            if (source < 0) {
+                continue;
+            }
+            for (String target : dependency.all()) {
+                int to = id(target, grouping, ids, names, classIds);
+                if (to >= 0 && to != source) {
+                    grow(dependencies, members, names.size());
+                    dependencies.get(source).set(to);
+                }
+            }
+            grow(dependencies, members, names.size());
+            members.get(source).add(dependency.getClassName());
+        }
+
+        grow(dependencies, members, names.size());
+        return new DependencyRollup(names.toArray(new String[0]), ids, dependencies.toArray(new BitSet[0]),
+                members, classes, grouping);
+    }
+
+    private static void grow(List<BitSet> dependencies, List<List<String>> members, int size) {
+        while (dependencies.size() < size) {
+            dependencies.add(new BitSet());
+            members.add(Lists.newArrayList());
+        }
+    }
+
+    private static int id(String className, Function<String, String> grouping, Map<String, Integer> ids,
+                          List<String> names, Map<String, Integer> classIds) {
+        Integer cached = classIds.get(className);
+        if (cached != null) {
+            return cached;
+        }
+        String group = grouping.apply(className);
+        int id = -1;
+        if (group != null) {
+            Integer existing = ids.get(group);
+            if (existing == null) {
+                existing = names.size();
+                ids.put(group, existing);
+                names.add(group);
+            }
+            id = existing;
+        }
+        classIds.put(className, id);
+        return id;
+    }
+
+    /**
+     * 类所在的包，默认包为空字符串
+     *
+     * @param className 类名
+     * @return
+     */
+    public static String packageName(String className) {
+        int index = className.lastIndexOf('.');
+        return index < 0 ? "" : className.substring(0, index);
+    }
+
+    /**
+     * 包/模块的id，不存在时返回-1
+     *
+     * @param name 包/模块名
+     * @return
+     */
+    public int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * 包/模块的数量
+     *
+     * @return
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 直接依赖的包/模块，返回内部BitSet，不要修改
+     *
+     * @param id 包/模块id
+     * @return
+     */
+    public BitSet dependencies(int id) {
+        return dependencies[id];
+    }
+
+    public boolean dependsOn(int source, int target) {
+        return dependencies[source].get(target);
+    }
+
+    /**
+     * 包/模块下扫描到的类
+     *
+     * @param id 包/模块id
+     * @return
+     */
+    public List<String> members(int id) {
+        return Collections.unmodifiableList(members.get(id));
+    }
+
+    /**
+     * 造成source -> target依赖的类级别依赖，用于定位违规
+     *
+     * @param source 包/模块id
+     * @param target 被依赖的包/模块id
+     * @return 类名 -> 被依赖的类名
+     */
+    public List<Map.Entry<String, String>> classEdges(int source, int target) {
+        List<Map.Entry<String, String>> result = Lists.newArrayList();
+        String targetName = names[target];
+        for (String className : members.get(source)) {
+            for (String dependency : classes.get(className).all()) {
+                if (targetName.equals(grouping.apply(dependency))) {
+                    result.add(Maps.immutableEntry(className, dependency));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 名称匹配pattern的包/模块，pattern支持：
+     * <ul>
+     * <li>完整名称，如com.example.web</li>
+     * <li>以.*结尾，直接子包，如com.example.*</li>
+     * <li>以..结尾，自身及所有子包，如com.example.web..</li>
+     * <li>*，所有包/模块</li>
+     * </ul>
+     *
+     * @param pattern 名称模式
+     * @return
+     */
+    public BitSet matching(String pattern) {
+        BitSet set = new BitSet(names.length);
+        for (int i = 0; i < names.length; i++) {
+            if (matches(pattern, names[i])) {
+                set.set(i);
+            }
+        }
+        return set;
+    }
+
+    static boolean matches(String pattern, String name) {
+        if ("*".equals(pattern)) {
+            return true;
+        }
+        if (pattern.endsWith("..")) {
+            String prefix = pattern.substring(0, pattern.length() - 2);
+            return name.equals(prefix) || name.startsWith(prefix) && name.length() > prefix.length() && name.charAt(prefix.length()) == '.';
+        }
+        if (pattern.endsWith(".*")) {
+            String prefix = pattern.substring(0, pattern.length() - 1);
+            return name.startsWith(prefix) && name.length() > prefix.length() && name.indexOf('.', prefix.length()) < 0;
+        }
+        return pattern.equals(name);
+    }
+}
@@ -0,0 +1,322 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import top.zhuyuncheng.box.clazz.ClassDependency;
+
+/**
+ * 正向/反向依赖索引（"X依赖谁"、"谁依赖X"）
+ * <p>
+ * 类名映射为int id，边以CSR形式保存：offsets[id]..offsets[id + 1]为该类在targets中的区间，
+ * 每个区间内id有序且去重。正向、反向各一份，查询只做数组访问。
+ */
+public final class ReverseDependencyIndex {
+    private final String[] names;
+    private final Map<String, Integer> ids;
+
+    private final int[] forwardOffsets;
+    private final int[] forwardTargets;
+    private final int[] reverseOffsets;
+    private final int[] reverseTargets;
+
+    private ReverseDependencyIndex(String[] names, Map<String, Integer> ids, int[] forwardOffsets, int[] forwardTargets) {
+        this.names = names;
+        this.ids = ids;
+        this.forwardOffsets = forwardOffsets;
+        this.forwardTargets = forwardTargets;
+
+        int size = names.length;
+        int[] degrees = new int[size + 1];
+        for (int target : forwardTargets) {
+            degrees[target + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            degrees[i + 1] += degrees[i];
+        }
+        this.reverseOffsets = degrees.clone();
+        this.reverseTargets = new int[forwardTargets.length];
+        int[] cursor = Arrays.copyOf(degrees, size);
+        // 按source顺序写入，每个区间天然有序
+        for (int source = 0; source < size; source++) {
+            for (int i = forwardOffsets[source]; i < forwardOffsets[source + 1]; i++) {
+                reverseTargets[cursor[forwardTargets[i]]++] = source;
+            }
+        }
+    }
+
+    /**
+     * 基于扫描结果构建
+     *
+     * @param dependencies 类名 -> 依赖
+     * @return
+     */
+    public static ReverseDependencyIndex of(Map<String, ClassDependency> dependencies) {
+        Builder builder = builder();
+        for (ClassDependency dependency : dependencies.values()) {
+            builder.add(dependency.getClassName(), dependency.all());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 类的id，不存在时返回-1
+     *
+     * @param className 类名
+     * @return
+     */
+    public int id(String className) {
+        Integer id = ids.get(className);
+        return id == null ? -1 : id;
+    }
+
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * 类的数量
+     *
+     * @return
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * 边的数量
+     *
+     * @return
+     */
+    public int edgeCount() {
+        return forwardTargets.length;
+    }
+
+    /**
+     * 直接依赖的数量
+     *
+     * @param id 类id
+     * @return
+     */
+    public int dependencyCount(int id) {
+        return forwardOffsets[id + 1] - forwardOffsets[id];
+    }
+
+    /**
+     * 直接被依赖的数量
+     *
+     * @param id 类id
+     * @return
+     */
+    public int dependentCount(int id) {
+        return reverseOffsets[id + 1] - reverseOffsets[id];
+    }
+
+    /**
+     * 遍历直接依赖
+     *
+     * @param id       类id
+     * @param consumer 依赖的类id
+     */
+    public void forEachDependency(int id, IntConsumer consumer) {
+        for (int i = forwardOffsets[id]; i < forwardOffsets[id + 1]; i++) {
+            consumer.accept(forwardTargets[i]);
+        }
+    }
+
+    /**
+     * 遍历直接依赖该类的类
+     *
+     * @param id       类id
+     * @param consumer 依赖方的类id
+     */
+    public void forEachDependent(int id, IntConsumer consumer) {
+        for (int i = reverseOffsets[id]; i < reverseOffsets[id + 1]; i++) {
+            consumer.accept(reverseTargets[i]);
+        }
+    }
+
+    /**
+     * 是否直接依赖，二分查找
+     *
+     * @param source 类id
+     * @param target 被依赖的类id
+     * @return
+     */
+    public boolean dependsOn(int source, int target) {
+        return Arrays.binarySearch(forwardTargets, forwardOffsets[source], forwardOffsets[source + 1], target) >= 0;
+    }
+
+    /**
+     * 直接依赖
+     *
+     * @param className 类名
+     * @return
+     */
+    public List<String> dependencies(String className) {
+        int id = id(className);
+        return id < 0 ? Collections.emptyList() : toNames(forwardTargets, forwardOffsets[id], forwardOffsets[id + 1]);
+    }
+
+    /**
+     * 直接依赖该类的类
+     *
+     * @param className 类名
+     * @return
+     */
+    public List<String> dependents(String className) {
+        int id = id(className);
+        return id < 0 ? Collections.emptyList() : toNames(reverseTargets, reverseOffsets[id], reverseOffsets[id + 1]);
+    }
+
+    /**
+     * 直接或间接依赖该类的所有类（影响范围）
+     *
+     * @param className 类名
+     * @return
+     */
+    public List<String> transitiveDependents(String className) {
+        int id = id(className);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        BitSet visited = new BitSet(names.length);
+        int[] queue = new int[names.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = id;
+        visited.set(id);
+        while (head < tail) {
+            int current = queue[head++];
+            for (int i = reverseOffsets[current]; i < reverseOffsets[current + 1]; i++) {
+                int dependent = reverseTargets[i];
+                if (!visited.get(dependent)) {
+                    visited.set(dependent);
+                    queue[tail++] = dependent;
+                }
+            }
+        }
+        visited.clear(id);
+        List<String> result = Lists.newArrayListWithCapacity(visited.cardinality());
+        for (int i = visited.nextSetBit(0); i >= 0; i = visited.nextSetBit(i + 1)) {
+            result.add(names[i]);
+        }
+        return result;
+    }
+
+    private List<String> toNames(int[] targets, int from, int to) {
+        List<String> list = Lists.newArrayListWithCapacity(to - from);
+        for (int i = from; i < to; i++) {
+            list.add(names[targets[i]]);
+        }
+        return list;
+    }
+
+    /**
+     * 边先记录在两个int数组中，build时统一转为CSR
+     */
+    public static final class Builder {
+        private final Map<String, Integer> ids = Maps.newHashMap();
+        private final List<String> names = Lists.newArrayList();
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private int edges;
+
+        private Builder() {
+        }
+
+        /**
+         * 添加类，没有依赖的类也会分配id
+         *
+         * @param className 类名
+         * @return
+         */
+        public int addClass(String className) {
+            Integer id = ids.get(className);
+            if (id == null) {
+                id = names.size();
+                ids.put(className, id);
+                names.add(className);
+            }
+            return id;
+        }
+
+        /**
+         * 添加依赖，忽略自身引用
+         *
+         * @param source 类名
+         * @param target 被依赖的类名
+         * @return
+         */
+        public Builder addEdge(String source, String target) {
+            int from = addClass(source);
+            int to = addClass(target);
+            if (from == to) {
+                return this;
+            }
+            if (edges == sources.length) {
+                sources = Arrays.copyOf(sources, edges << 1);
+                targets = Arrays.copyOf(targets, edges << 1);
+            }
+            sources[edges] = from;
+            targets[edges] = to;
+            edges++;
+            return this;
+        }
+
+        public Builder add(String source, Collection<String> targets) {
+            addClass(source);
+            for (String target : targets) {
+                addEdge(source, target);
+            }
+            return this;
+        }
+
+        public ReverseDependencyIndex build() {
+            int size = names.size();
+            int[] offsets = new int[size + 1];
+            for (int i = 0; i < edges; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int i = 0; i < size; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] cursor = Arrays.copyOf(offsets, size);
+            int[] sorted = new int[edges];
+            for (int i = 0; i < edges; i++) {
+                sorted[cursor[sources[i]]++] = targets[i];
+            }
+
+            // 区间内排序去重并压缩
+            int[] compactOffsets = new int[size + 1];
+            int n = 0;
+            for (int id = 0; id < size; id++) {
+                int from = offsets[id];
+                int to = offsets[id + 1];
+                Arrays.sort(sorted, from, to);
+                compactOffsets[id] = n;
+                for (int i = from; i < to; i++) {
+                    if (i == from || sorted[i] != sorted[i - 1]) {
+                        sorted[n++] = sorted[i];
+                    }
+                }
+            }
+            compactOffsets[size] = n;
+
+            return new ReverseDependencyIndex(names.toArray(new String[0]), Maps.newHashMap(ids),
+                    compactOffsets, Arrays.copyOf(sorted, n));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 架构规则的违规
+ * {@link #getRule()}   规则描述
+ * {@link #getSource()} 依赖方包/模块，循环依赖时为null
+ * {@link #getTarget()} 被依赖的包/模块，循环依赖时为null
+ * {@link #getCycle()}  循环依赖中的包/模块，依赖违规时为null
+ */
+@Data
+@Builder
+public class RuleViolation {
+    private String rule;
+    private String source;
+    private String target;
+    private List<String> cycle;
+}
@@ -0,0 +1,301 @@
+package top.zhuyuncheng.box.clazz.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.Sets;
+
+import javassist.bytecode.AnnotationsAttribute;
+import javassist.bytecode.ClassFile;
+import javassist.bytecode.FieldInfo;
+import javassist.bytecode.MethodInfo;
+import javassist.bytecode.ParameterAnnotationsAttribute;
+import javassist.bytecode.annotation.Annotation;
+import top.zhuyuncheng.box.clazz.scan.DependencyScanner;
+
+/**
+ * 注解索引：注解类型 -> 被注解的元素（类、字段、方法、方法参数，运行时可见与不可见）
+ * <p>
+ * 构建一次后可序列化，应用启动时直接读取，替代基于反射的组件扫描
+ */
+public final class AnnotationIndex {
+    private static final int MAGIC = 0x54424149;
+    private static final int VERSION = 1;
+
+    private final Map<String, List<AnnotationTarget>> targets;
+
+    private AnnotationIndex(Map<String, List<AnnotationTarget>> targets) {
+        this.targets = targets;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 扫描jar、目录或class文件构建索引
+     *
+     * @param scanner 扫描器
+     * @param paths   jar、目录或class文件
+     * @return
+     */
+    public static AnnotationIndex scan(DependencyScanner scanner, Collection<Path> paths) {
+        Builder builder = builder();
+        scanner.scanClassFiles(paths, builder::add);
+        return builder.build();
+    }
+
+    /**
+     * 所有注解类型
+     *
+     * @return
+     */
+    public Set<String> annotations() {
+        return targets.keySet();
+    }
+
+    /**
+     * 被指定注解标注的所有元素
+     *
+     * @param annotation 注解类型
+     * @return
+     */
+    public List<AnnotationTarget> get(String annotation) {
+        List<AnnotationTarget> list = targets.get(annotation);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    /**
+     * 被指定注解标注的类
+     *
+     * @param annotation 注解类型
+     * @return
+     */
+    public Set<String> getClasses(String annotation) {
+        Set<String> set = Sets.newLinkedHashSet();
+        for (AnnotationTarget target : get(annotation)) {
+            if (target.getKind() == AnnotationTarget.Kind.CLASS) {
+                set.add(target.getClassName());
+            }
+        }
+        return set;
+    }
+
+    public void write(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    /**
+     * 序列化，字符串写入一次，元素中以id引用
+     *
+     * @param out 输出
+     */
+    public void write(OutputStream out) throws IOException {
+        Map<String, Integer> ids = Maps.newHashMap();
+        List<String> strings = Lists.newArrayList();
+        for (Map.Entry<String, List<AnnotationTarget>> entry : targets.entrySet()) {
+            id(entry.getKey(), ids, strings);
+            for (AnnotationTarget target : entry.getValue()) {
+                id(target.getClassName(), ids, strings);
+                id(target.getMemberName(), ids, strings);
+                id(target.getDescriptor(), ids, strings);
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(strings.size());
+        for (String value : strings) {
+            data.writeUTF(value);
+        }
+        data.writeInt(targets.size());
+        for (Map.Entry<String, List<AnnotationTarget>> entry : targets.entrySet()) {
+            data.writeInt(ids.get(entry.getKey()));
+            data.writeInt(entry.getValue().size());
+            for (AnnotationTarget target : entry.getValue()) {
+                data.writeByte(target.getKind().ordinal());
+                data.writeBoolean(target.isVisible());
+                data.writeInt(id(target.getClassName(), ids, strings));
+                data.writeInt(id(target.getMemberName(), ids, strings));
+                data.writeInt(id(target.getDescriptor(), ids, strings));
+                data.writeShort(target.getParameterIndex());
+            }
+        }
+        data.flush();
+    }
+
+    public static AnnotationIndex read(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    public static AnnotationIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Incompatible annotation index");
+        }
+        String[] strings = new String[data.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+        AnnotationTarget.Kind[] kinds = AnnotationTarget.Kind.values();
+        int annotations = data.readInt();
+        ImmutableMap.Builder<String, List<AnnotationTarget>> builder = ImmutableMap.builder();
+        for (int i = 0; i < annotations; i++) {
+            String annotation = strings[data.readInt()];
+            int size = data.readInt();
+            ImmutableList.Builder<AnnotationTarget> list = ImmutableList.builder();
+            for (int j = 0; j < size; j++) {
+                list.add(AnnotationTarget.builder()
+                        .kind(kinds[data.readByte()])
+                        .visible(data.readBoolean())
+                        .className(string(strings, data.readInt()))
+                        .memberName(string(strings, data.readInt()))
+                        .descriptor(string(strings, data.readInt()))
+                        .parameterIndex(data.readShort())
+                        .build());
+            }
+            builder.put(annotation, list.build());
+        }
+        return new AnnotationIndex(builder.build());
+    }
+
+    private static String string(String[] strings, int id) {
+        return id < 0 ? null : strings[id];
+    }
+
+    private static int id(String value, Map<String, Integer> ids, List<String> strings) {
+        if (value == null) {
+            return -1;
+        }
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value);
+        }
+        return id;
+    }
+
+    /**
+     * 线程安全，可以在并行扫描中直接添加
+     */
+    public static final class Builder {
+        private static final Comparator<AnnotationTarget> ORDER = Comparator.comparing(AnnotationTarget::getClassName)
+                .thenComparing(AnnotationTarget::getKind)
+                .thenComparing(AnnotationTarget::isVisible)
+                .thenComparing(AnnotationTarget::getMemberName, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(AnnotationTarget::getDescriptor, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparingInt(AnnotationTarget::getParameterIndex);
+
+        private final Map<String, List<AnnotationTarget>> targets = new ConcurrentHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(ClassFile classFile) {
+            String className = classFile.getName();
+            for (boolean visible : new boolean[]{true, false}) {
+                String tag = visible ? AnnotationsAttribute.visibleTag : AnnotationsAttribute.invisibleTag;
+                add((AnnotationsAttribute) classFile.getAttribute(tag), AnnotationTarget.builder()
+                        .kind(AnnotationTarget.Kind.CLASS)
+                        .className(className)
+                        .visible(visible));
+
+                List<FieldInfo> fields = classFile.getFields();
+                for (FieldInfo field : fields) {
+                    add((AnnotationsAttribute) field.getAttribute(tag), AnnotationTarget.builder()
+                            .kind(AnnotationTarget.Kind.FIELD)
+                            .className(className)
+                            .memberName(field.getName())
+                            .descriptor(field.getDescriptor())
+                            .visible(visible));
+                }
+
+                List<MethodInfo> methods = classFile.getMethods();
+                for (MethodInfo method : methods) {
+                    add((AnnotationsAttribute) method.getAttribute(tag), AnnotationTarget.builder()
+                            .kind(AnnotationTarget.Kind.METHOD)
+                            .className(className)
+                            .memberName(method.getName())
+                            .descriptor(method.getDescriptor())
+                            .visible(visible));
+
+                    String parameterTag = visible ? ParameterAnnotationsAttribute.visibleTag : ParameterAnnotationsAttribute.invisibleTag;
+                    ParameterAnnotationsAttribute parameters = (ParameterAnnotationsAttribute) method.getAttribute(parameterTag);
+                    if (parameters == null) {
+                        continue;
+                    }
+                    Annotation[][] annotations = parameters.getAnnotations();
+                    for (int i = 0; i < annotations.length; i++) {
+                        for (Annotation annotation : annotations[i]) {
+                            put(annotation.getTypeName(), AnnotationTarget.builder()
+                                    .kind(AnnotationTarget.Kind.PARAMETER)
+                                    .className(className)
+                                    .memberName(method.getName())
+                                    .descriptor(method.getDescriptor())
+                                    .parameterIndex(i)
+                                    .visible(visible)
+                                    .build());
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        /**
+         * 注解按名称排序，元素按类名、类型、成员排序，结果与并行扫描的完成顺序无关，序列化结果稳定
+         *
+         * @return
+         */
+        public AnnotationIndex build() {
+            ImmutableMap.Builder<String, List<AnnotationTarget>> builder = ImmutableMap.builder();
+            for (String annotation : Ordering.natural().sortedCopy(targets.keySet())) {
+                List<AnnotationTarget> list = targets.get(annotation);
+                synchronized (list) {
+                    builder.put(annotation, ImmutableList.sortedCopyOf(ORDER, list));
+                }
+            }
+            return new AnnotationIndex(builder.build());
+        }
+
+        private void add(AnnotationsAttribute attribute, AnnotationTarget.AnnotationTargetBuilder target) {
+            if (attribute == null) {
+                return;
+            }
+            AnnotationTarget built = target.build();
+            for (Annotation annotation : attribute.getAnnotations()) {
+                put(annotation.getTypeName(), built);
+            }
+        }
+
+        private void put(String annotation, AnnotationTarget target) {
+            List<AnnotationTarget> list = targets.computeIfAbsent(annotation, key -> Collections.synchronizedList(Lists.newArrayList()));
+            list.add(target);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package top.zhuyuncheng.box.clazz.index;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 被注解的元素
+ * {@link #getKind()}           类、字段、方法或方法参数
+ * {@link #getClassName()}      所在类
+ * {@link #getMemberName()}     字段名/方法名，类注解为null
+ * {@link #getDescriptor()}     字段/方法描述符，类注解为null
+ * {@link #getParameterIndex()} 参数下标，非参数注解为-1
+ * {@link #isVisible()}         是否运行时可见（RetentionPolicy.RUNTIME）
+ */
+@Data
+@Builder
+public class AnnotationTarget {
+    private Kind kind;
+    private String className;
+    private String memberName;
+    private String descriptor;
+    @Builder.Default
+    private int parameterIndex = -1;
+    private boolean visible;
+
+    public enum Kind {
+        CLASS,
+        FIELD,
+        METHOD,
+        PARAMETER
+    }
+}
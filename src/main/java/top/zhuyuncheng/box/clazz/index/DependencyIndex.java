@@ -0,0 +1,354 @@
+package top.zhuyuncheng.box.clazz.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.AnalysisBackend;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * 持久化的依赖索引，以字节码内容和分析方式（{@link AnalysisBackend}）的hash为key保存每个类的依赖
+ * <p>
+ * 只有字节码变化的类会重新分析，其余直接从索引读取。文件头记录{@link JavassistUtil#ANALYZER_VERSION}，
+ * 依赖提取规则变化后旧的索引文件不再使用。索引文件通过内存映射打开，
+ * 打开时只读取文件头，按hash二分查找目录，条目和字符串按需解码。
+ * <p>
+ * 文件格式（大端）：
+ * <pre>
+ * magic(int) version(int) analyzerVersion(int) stringCount(int) entryCount(int)
+ * stringOffsets(int[stringCount])
+ * directory((long hash, int offset)[entryCount])，按hash排序
+ * strings(varint长度 + UTF-8)
+ * entries(varint类名id，6个分类各自为varint数量 + varint字符串id)
+ * </pre>
+ */
+@Slf4j
+public class DependencyIndex {
+    private static final int MAGIC = 0x54424449;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int DIRECTORY_ENTRY_SIZE = 12;
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private final ByteBuffer mapped;
+    private final int stringCount;
+    private final int entryCount;
+    private final String[] strings;
+
+    private final Map<Long, ClassDependency> added = new ConcurrentHashMap<>();
+    private final Set<Long> touched = ConcurrentHashMap.newKeySet();
+    private volatile boolean retainedOnly;
+
+    private DependencyIndex(ByteBuffer mapped) {
+        this.mapped = mapped;
+        this.stringCount = mapped == null ? 0 : mapped.getInt(12);
+        this.entryCount = mapped == null ? 0 : mapped.getInt(16);
+        this.strings = new String[stringCount];
+    }
+
+    /**
+     * 空索引
+     *
+     * @return
+     */
+    public static DependencyIndex create() {
+        return new DependencyIndex(null);
+    }
+
+    /**
+     * 打开索引文件，文件不存在、格式或分析版本不匹配时返回空索引
+     *
+     * @param path 索引文件
+     * @return
+     */
+    public static DependencyIndex open(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return create();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != JavassistUtil.ANALYZER_VERSION) {
+                log.warn("Ignore incompatible dependency index {}", path);
+                return create();
+            }
+            return new DependencyIndex(buffer);
+        }
+    }
+
+    /**
+     * 分析字节码，内容未变化时直接返回索引中的结果
+     *
+     * @param bytes 字节码
+     * @return
+     */
+    public ClassDependency analyze(byte[] bytes) throws IOException {
+        long hash = key(ByteBuffer.wrap(bytes));
+        ClassDependency dependency = get(hash);
+        if (dependency == null) {
+            dependency = JavassistUtil.analyze(bytes);
+            added.put(hash, dependency);
+        }
+        touched.add(hash);
+        return dependency;
+    }
+
+    /**
+     * 分析字节码，内容未变化时直接返回索引中的结果
+     *
+     * @param buffer 字节码
+     * @return
+     */
+    public ClassDependency analyze(ByteBuffer buffer) throws IOException {
+        long hash = key(buffer);
+        ClassDependency dependency = get(hash);
+        if (dependency == null) {
+            dependency = JavassistUtil.analyze(buffer);
+            added.put(hash, dependency);
+        }
+        touched.add(hash);
+        return dependency;
+    }
+
+    /**
+     * 本次新分析（未命中索引）的类数量
+     *
+     * @return
+     */
+    public int analyzedCount() {
+        return added.size();
+    }
+
+    /**
+     * 丢弃本次没有访问过的条目，保存时不再写入（如已删除的类）
+     */
+    public void retainTouched() {
+        Map<Long, ClassDependency> retained = Maps.newHashMap();
+        for (Long hash : touched) {
+            retained.put(hash, get(hash));
+        }
+        added.clear();
+        added.putAll(retained);
+        retainedOnly = true;
+    }
+
+    /**
+     * 保存索引，先写临时文件再替换
+     *
+     * @param path 索引文件
+     */
+    public void save(Path path) throws IOException {
+        Map<Long, ClassDependency> entries = Maps.newHashMap();
+        if (!retainedOnly) {
+            for (int i = 0; i < entryCount; i++) {
+                long hash = directoryHash(i);
+                entries.put(hash, decode(directoryOffset(i)));
+            }
+        }
+        entries.putAll(added);
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        Files.write(temp, encode(entries));
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * 不同分析方式的结果可能不同，分析方式参与hash
+     */
+    private static long key(ByteBuffer buffer) {
+        return HASH.newHasher()
+                .putInt(JavassistUtil.getBackend().ordinal())
+                .putBytes(buffer.duplicate())
+                .hash()
+                .asLong();
+    }
+
+    private ClassDependency get(long hash) {
+        ClassDependency dependency = added.get(hash);
+        if (dependency != null) {
+            return dependency;
+        }
+        int low = 0;
+        int high = entryCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = directoryHash(mid);
+            if (value < hash) {
+                low = mid + 1;
+            } else if (value > hash) {
+                high = mid - 1;
+            } else {
+                return decode(directoryOffset(mid));
+            }
+        }
+        return null;
+    }
+
+    private long directoryHash(int i) {
+        return mapped.getLong(directoryStart() + i * DIRECTORY_ENTRY_SIZE);
+    }
+
+    private int directoryOffset(int i) {
+        return mapped.getInt(directoryStart() + i * DIRECTORY_ENTRY_SIZE + 8);
+    }
+
+    private int directoryStart() {
+        return HEADER_SIZE + stringCount * 4;
+    }
+
+    private ClassDependency decode(int offset) {
+        int[] cursor = {offset};
+        return ClassDependency.builder()
+                .className(string(readVarint(mapped, cursor)))
+                .annotations(readSet(cursor))
+                .superClasses(readSet(cursor))
+                .interfaces(readSet(cursor))
+                .fields(readSet(cursor))
+                .signatures(readSet(cursor))
+                .constPool(readSet(cursor))
+                .build();
+    }
+
+    private Set<String> readSet(int[] cursor) {
+        int size = readVarint(mapped, cursor);
+        Set<String> set = Sets.newHashSetWithExpectedSize(size);
+        for (int i = 0; i < size; i++) {
+            set.add(string(readVarint(mapped, cursor)));
+        }
+        return set;
+    }
+
+    private String string(int id) {
+        String value = strings[id];
+        if (value == null) {
+            int[] cursor = {mapped.getInt(HEADER_SIZE + id * 4)};
+            int length = readVarint(mapped, cursor);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = mapped.get(cursor[0] + i);
+            }
+            // 并发下可能重复解码，结果相同
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = value;
+        }
+        return value;
+    }
+
+    private static byte[] encode(Map<Long, ClassDependency> entries) throws IOException {
+        Map<String, Integer> ids = Maps.newHashMap();
+        List<String> table = Lists.newArrayList();
+        long[] hashes = new long[entries.size()];
+        int n = 0;
+        for (Long hash : entries.keySet()) {
+            hashes[n++] = hash;
+        }
+        Arrays.sort(hashes);
+
+        ByteArrayOutputStream entryData = new ByteArrayOutputStream();
+        int[] entryOffsets = new int[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            ClassDependency dependency = entries.get(hashes[i]);
+            entryOffsets[i] = entryData.size();
+            writeVarint(entryData, id(dependency.getClassName(), ids, table));
+            writeSet(entryData, dependency.getAnnotations(), ids, table);
+            writeSet(entryData, dependency.getSuperClasses(), ids, table);
+            writeSet(entryData, dependency.getInterfaces(), ids, table);
+            writeSet(entryData, dependency.getFields(), ids, table);
+            writeSet(entryData, dependency.getSignatures(), ids, table);
+            writeSet(entryData, dependency.getConstPool(), ids, table);
+        }
+
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        int[] stringOffsets = new int[table.size()];
+        for (int i = 0; i < table.size(); i++) {
+            byte[] bytes = table.get(i).getBytes(StandardCharsets.UTF_8);
+            stringOffsets[i] = stringData.size();
+            writeVarint(stringData, bytes.length);
+            stringData.write(bytes);
+        }
+
+        int stringBase = HEADER_SIZE + table.size() * 4 + hashes.length * DIRECTORY_ENTRY_SIZE;
+        int entryBase = stringBase + stringData.size();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entryBase + entryData.size());
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(JavassistUtil.ANALYZER_VERSION);
+        data.writeInt(table.size());
+        data.writeInt(hashes.length);
+        for (int offset : stringOffsets) {
+            data.writeInt(stringBase + offset);
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            data.writeLong(hashes[i]);
+            data.writeInt(entryBase + entryOffsets[i]);
+        }
+        stringData.writeTo(data);
+        entryData.writeTo(data);
+        data.flush();
+        return out.toByteArray();
+    }
+
+    private static void writeSet(ByteArrayOutputStream out, Set<String> set, Map<String, Integer> ids, List<String> table) {
+        writeVarint(out, set.size());
+        for (String value : set) {
+            writeVarint(out, id(value, ids, table));
+        }
+    }
+
+    private static int id(String value, Map<String, Integer> ids, List<String> table) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = table.size();
+            ids.put(value, id);
+            table.add(value);
+        }
+        return id;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer, int[] cursor) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(cursor[0]++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,285 @@
+package top.zhuyuncheng.box.clazz.reader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 轻量的字节码读取，顺序读取一遍ByteBuffer，除常量池偏移表和回调的字符串外不产生额外对象，类名来自{@link SymbolTable}
+ * <p>
+ * 只读取常量池、类头、接口、字段、方法声明和类注解，不解析方法体；不修改传入ByteBuffer的position
+ */
+public final class ClassFileReader {
+    /**
+     * 不读取方法
+     */
+    public static final int SKIP_METHODS = 1;
+    /**
+     * 不读取类属性（注解）
+     */
+    public static final int SKIP_ATTRIBUTES = 1 << 1;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private static final String SIGNATURE = "Signature";
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String RUNTIME_INVISIBLE_ANNOTATIONS = "RuntimeInvisibleAnnotations";
+
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final int headerOffset;
+
+    private ClassFileReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        int base = buffer.position();
+        if (buffer.getInt(base) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+        int count = u2(base + 8);
+        this.offsets = new int[count];
+        int offset = base + 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = offset;
+            int tag = buffer.get(offset) & 0xFF;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    offset += 3 + u2(offset + 1);
+                    break;
+                case CONSTANT_CLASS:
+                case CONSTANT_STRING:
+                case CONSTANT_METHOD_TYPE:
+                case CONSTANT_MODULE:
+                case CONSTANT_PACKAGE:
+                    offset += 3;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    offset += 4;
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_FIELDREF:
+                case CONSTANT_METHODREF:
+                case CONSTANT_INTERFACE_METHODREF:
+                case CONSTANT_NAME_AND_TYPE:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                    offset += 5;
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    offset += 9;
+                    i++;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at " + offset);
+            }
+        }
+        this.headerOffset = offset;
+    }
+
+    /**
+     * 读取字节码
+     *
+     * @param buffer  字节码，从position开始
+     * @param visitor 回调
+     */
+    public static void read(ByteBuffer buffer, ClassFileVisitor visitor) {
+        read(buffer, visitor, 0);
+    }
+
+    /**
+     * 读取字节码
+     *
+     * @param buffer  字节码，从position开始
+     * @param visitor 回调
+     * @param flags   {@link #SKIP_METHODS}、{@link #SKIP_ATTRIBUTES}
+     */
+    public static void read(ByteBuffer buffer, ClassFileVisitor visitor, int flags) {
+        new ClassFileReader(buffer).accept(visitor, flags);
+    }
+
+    private void accept(ClassFileVisitor visitor, int flags) {
+        int offset = headerOffset;
+        int access = u2(offset);
+        int superIndex = u2(offset + 4);
+        visitor.visitClass(access, className(u2(offset + 2)), superIndex == 0 ? null : className(superIndex));
+
+        for (int i = 1; i < offsets.length; i++) {
+            int constant = offsets[i];
+            if (constant != 0 && buffer.get(constant) == CONSTANT_CLASS) {
+                visitor.visitConstPoolClass(symbol(u2(constant + 1)));
+            }
+        }
+
+        int interfaces = u2(offset + 6);
+        offset += 8;
+        for (int i = 0; i < interfaces; i++, offset += 2) {
+            visitor.visitInterface(className(u2(offset)));
+        }
+
+        int fields = u2(offset);
+        offset += 2;
+        for (int i = 0; i < fields; i++) {
+            visitor.visitField(u2(offset), utf8(u2(offset + 2)), utf8(u2(offset + 4)), signature(offset + 6));
+            offset = skipAttributes(offset + 6);
+        }
+
+        if ((flags & SKIP_METHODS) != 0 && (flags & SKIP_ATTRIBUTES) != 0) {
+            return;
+        }
+        int methods = u2(offset);
+        offset += 2;
+        for (int i = 0; i < methods; i++) {
+            if ((flags & SKIP_METHODS) == 0) {
+                visitor.visitMethod(u2(offset), utf8(u2(offset + 2)), utf8(u2(offset + 4)), signature(offset + 6));
+            }
+            offset = skipAttributes(offset + 6);
+        }
+
+        if ((flags & SKIP_ATTRIBUTES) != 0) {
+            return;
+        }
+        int attributes = u2(offset);
+        offset += 2;
+        for (int i = 0; i < attributes; i++) {
+            int length = buffer.getInt(offset + 2);
+            int start = offset + 6;
+            boolean visible = utf8Equals(u2(offset), RUNTIME_VISIBLE_ANNOTATIONS);
+            if (visible || utf8Equals(u2(offset), RUNTIME_INVISIBLE_ANNOTATIONS)) {
+                int count = u2(start);
+                int cursor = start + 2;
+                for (int j = 0; j < count; j++) {
+                    visitor.visitClassAnnotation(utf8(u2(cursor)), visible);
+                    cursor = skipAnnotation(cursor);
+                }
+            }
+            offset = start + length;
+        }
+    }
+
+    /**
+     * 字段/方法属性中的Signature
+     */
+    private String signature(int offset) {
+        int count = u2(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            if (utf8Equals(u2(offset), SIGNATURE)) {
+                return utf8(u2(offset + 6));
+            }
+            offset += 6 + buffer.getInt(offset + 2);
+        }
+        return null;
+    }
+
+    private int skipAttributes(int offset) {
+        int count = u2(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6 + buffer.getInt(offset + 2);
+        }
+        return offset;
+    }
+
+    private int skipAnnotation(int offset) {
+        int pairs = u2(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairs; i++) {
+            offset = skipElementValue(offset + 2);
+        }
+        return offset;
+    }
+
+    private int skipElementValue(int offset) {
+        int tag = buffer.get(offset) & 0xFF;
+        switch (tag) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(offset + 1);
+            case '[':
+                int count = u2(offset + 1);
+                offset += 3;
+                for (int i = 0; i < count; i++) {
+                    offset = skipElementValue(offset);
+                }
+                return offset;
+            default:
+                return offset + 3;
+        }
+    }
+
+    private String className(int classIndex) {
+        return symbol(u2(offsets[classIndex] + 1));
+    }
+
+    /**
+     * 类名直接从UTF-8字节在{@link SymbolTable}中查找，不产生中间字符串；数组描述符不放入符号表
+     */
+    private String symbol(int index) {
+        int offset = offsets[index];
+        if (u2(offset + 1) > 0 && buffer.get(offset + 3) == '[') {
+            return utf8(index).replace('/', '.');
+        }
+        return SymbolTable.global().intern(buffer, offset + 3, u2(offset + 1));
+    }
+
+    private int u2(int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    private boolean utf8Equals(int index, String value) {
+        int offset = offsets[index];
+        int length = u2(offset + 1);
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + 3 + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 解码modified UTF-8
+     */
+    private String utf8(int index) {
+        int offset = offsets[index];
+        int length = u2(offset + 1);
+        int start = offset + 3;
+        int end = start + length;
+        char[] chars = new char[length];
+        int n = 0;
+        for (int i = start; i < end; ) {
+            int b = buffer.get(i++) & 0xFF;
+            char c;
+            if (b < 0x80) {
+                c = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                c = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+            } else {
+                c = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6) | (buffer.get(i++) & 0x3F));
+            }
+            chars[n++] = c;
+        }
+        return new String(chars, 0, n);
+    }
+}
@@ -0,0 +1,66 @@
+package top.zhuyuncheng.box.clazz.reader;
+
+/**
+ * {@link ClassFileReader}读取过程中的回调，类名均为'.'分隔的形式，描述符保持字节码中的原样
+ * <p>
+ * 回调顺序：类头、常量池中的类、接口、字段、方法、类注解
+ */
+public interface ClassFileVisitor {
+
+    /**
+     * 常量池中的类（CONSTANT_Class），数组类为描述符形式，如[Ljava.lang.String;
+     *
+     * @param className 类名
+     */
+    default void visitConstPoolClass(String className) {
+    }
+
+    /**
+     * 类头
+     *
+     * @param access     访问标识
+     * @param className  类名
+     * @param superClass 父类，java.lang.Object、module-info为null
+     */
+    default void visitClass(int access, String className, String superClass) {
+    }
+
+    /**
+     * 接口
+     *
+     * @param className 接口名
+     */
+    default void visitInterface(String className) {
+    }
+
+    /**
+     * 字段
+     *
+     * @param access     访问标识
+     * @param name       字段名
+     * @param descriptor 字段描述符
+     * @param signature  泛型Signature，没有时为null
+     */
+    default void visitField(int access, String name, String descriptor, String signature) {
+    }
+
+    /**
+     * 方法
+     *
+     * @param access     访问标识
+     * @param name       方法名
+     * @param descriptor 方法描述符
+     * @param signature  泛型Signature，没有时为null
+     */
+    default void visitMethod(int access, String name, String descriptor, String signature) {
+    }
+
+    /**
+     * 类注解
+     *
+     * @param descriptor 注解类型描述符，如Ljava/lang/Deprecated;
+     * @param visible    是否运行时可见
+     */
+    default void visitClassAnnotation(String descriptor, boolean visible) {
+    }
+}
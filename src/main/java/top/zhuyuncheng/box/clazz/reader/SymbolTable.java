@@ -0,0 +1,305 @@
+package top.zhuyuncheng.box.clazz.reader;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 类名符号表，相同的类名只保留一个String实例，'/'统一替换为'.'
+ * <p>
+ * 可以直接从常量池的UTF-8字节、char[]或字符串的一段查找，命中时不产生新对象。
+ * 按hash分段，查找无锁，只有插入新类名时锁住所在分段；节点不可变，扩容时整体替换表。
+ * 类名以弱引用保存，不再被使用的类名可以被GC回收，回收后的节点在下次插入时清理，长期运行时表不会无限增长。
+ * 只保存类名，数组描述符等不应放入。
+ */
+public final class SymbolTable {
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_SHIFT = 32 - SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public SymbolTable() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * 全局共享的符号表，{@link ClassFileReader}、Descriptors和JavassistUtil产生的类名都来自这里
+     *
+     * @return
+     */
+    public static SymbolTable global() {
+        return GLOBAL;
+    }
+
+    public String intern(CharSequence name) {
+        return name == null ? null : intern(name, 0, name.length());
+    }
+
+    /**
+     * 查找name[start, end)对应的类名
+     *
+     * @param name  类名，'/'或'.'分隔
+     * @param start 起始下标
+     * @param end   结束下标（不含）
+     * @return
+     */
+    public String intern(CharSequence name, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + dotted(name.charAt(i));
+        }
+        Segment segment = segment(hash);
+        for (Node node = segment.head(hash); node != null; node = node.next) {
+            String value = node.get();
+            if (node.hash == hash && value != null && matches(value, name, start, end)) {
+                return value;
+            }
+        }
+        char[] chars = new char[end - start];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = dotted(name.charAt(i));
+        }
+        return segment.add(hash, new String(chars));
+    }
+
+    /**
+     * 查找chars[start, end)对应的类名
+     *
+     * @param chars 类名，'/'或'.'分隔
+     * @param start 起始下标
+     * @param end   结束下标（不含）
+     * @return
+     */
+    public String intern(char[] chars, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + dotted(chars[i]);
+        }
+        Segment segment = segment(hash);
+        for (Node node = segment.head(hash); node != null; node = node.next) {
+            String value = node.get();
+            if (node.hash == hash && value != null && matches(value, chars, start, end)) {
+                return value;
+            }
+        }
+        char[] copy = new char[end - start];
+        for (int i = start; i < end; i++) {
+            copy[i - start] = dotted(chars[i]);
+        }
+        return segment.add(hash, new String(copy));
+    }
+
+    /**
+     * 查找modified UTF-8字节对应的类名，不修改buffer的position
+     *
+     * @param buffer 字节码
+     * @param start  起始位置
+     * @param length 字节数
+     * @return
+     */
+    public String intern(ByteBuffer buffer, int start, int length) {
+        int end = start + length;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                // 非ASCII类名很少见，解码后再查找
+                return intern(decode(buffer, start, end));
+            }
+            hash = 31 * hash + dotted((char) b);
+        }
+        Segment segment = segment(hash);
+        for (Node node = segment.head(hash); node != null; node = node.next) {
+            String value = node.get();
+            if (node.hash == hash && value != null && matches(value, buffer, start, end)) {
+                return value;
+            }
+        }
+        char[] chars = new char[length];
+        for (int i = start; i < end; i++) {
+            chars[i - start] = dotted((char) buffer.get(i));
+        }
+        return segment.add(hash, new String(chars));
+    }
+
+    /**
+     * 类名数量，统计前先清理已被回收的类名
+     *
+     * @return
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segment(int hash) {
+        return segments[spread(hash) >>> SEGMENT_SHIFT];
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    private static char dotted(char c) {
+        return c == '/' ? '.' : c;
+    }
+
+    private static boolean matches(String value, CharSequence name, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i - start) != dotted(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String value, char[] chars, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i - start) != dotted(chars[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String value, ByteBuffer buffer, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i - start) != dotted((char) buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ByteBuffer buffer, int start, int end) {
+        char[] chars = new char[end - start];
+        int n = 0;
+        for (int i = start; i < end; ) {
+            int b = buffer.get(i++) & 0xFF;
+            if (b < 0x80) {
+                chars[n++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[n++] = (char) (((b & 0x1F) << 6) | (buffer.get(i++) & 0x3F));
+            } else {
+                chars[n++] = (char) (((b & 0x0F) << 12) | ((buffer.get(i++) & 0x3F) << 6) | (buffer.get(i++) & 0x3F));
+            }
+        }
+        return new String(chars, 0, n);
+    }
+
+    private static final class Node extends WeakReference<String> {
+        private final int hash;
+        private final Node next;
+
+        private Node(int hash, String value, Node next, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private static final class Segment {
+        private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+        private volatile AtomicReferenceArray<Node> table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+        private volatile int size;
+
+        private Node head(int hash) {
+            AtomicReferenceArray<Node> nodes = table;
+            return nodes.get(spread(hash) & (nodes.length() - 1));
+        }
+
+        /**
+         * 加锁后再查找一次，避免并发插入同一个类名
+         */
+        private synchronized String add(int hash, String value) {
+            if (queue.poll() != null) {
+                expunge();
+            }
+            AtomicReferenceArray<Node> nodes = table;
+            int index = spread(hash) & (nodes.length() - 1);
+            Node head = nodes.get(index);
+            for (Node node = head; node != null; node = node.next) {
+                String existing = node.get();
+                if (node.hash == hash && value.equals(existing)) {
+                    return existing;
+                }
+            }
+            nodes.set(index, new Node(hash, value, head, queue));
+            size++;
+            if (size > nodes.length() - (nodes.length() >>> 2)) {
+                table = copy(nodes, nodes.length() << 1);
+            }
+            return value;
+        }
+
+        /**
+         * 有类名被回收时，去掉回收的节点重建表；每次GC后只重建一次
+         */
+        private void expunge() {
+            while (queue.poll() != null) {
+                // 清空队列，回收的节点在重建时统一去掉
+            }
+            table = copy(table, table.length());
+        }
+
+        /**
+         * 读线程可能仍在遍历旧表，旧节点保持不变，新表使用新节点，已回收的节点不复制
+         */
+        private AtomicReferenceArray<Node> copy(AtomicReferenceArray<Node> nodes, int capacity) {
+            AtomicReferenceArray<Node> copied = new AtomicReferenceArray<>(capacity);
+            int mask = capacity - 1;
+            int count = 0;
+            for (int i = 0; i < nodes.length(); i++) {
+                for (Node node = nodes.get(i); node != null; node = node.next) {
+                    String value = node.get();
+                    if (value != null) {
+                        int index = spread(node.hash) & mask;
+                        copied.set(index, new Node(node.hash, value, copied.get(index), queue));
+                        count++;
+                    }
+                }
+            }
+            size = count;
+            return copied;
+        }
+
+        private synchronized int size() {
+            if (queue.poll() != null) {
+                expunge();
+            }
+            return size;
+        }
+
+        private synchronized void clear() {
+            table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+            size = 0;
+            while (queue.poll() != null) {
+                // 旧节点已全部丢弃
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * 异步批量分析，限制并发和在途任务数
+ * <p>
+ * 在途任务（已提交未完成）达到maxInFlight时，提交方阻塞等待，内存占用不会随输入无限增长。
+ * virtualThreads为true且JVM支持（JDK 21+）时每个任务使用一个虚拟线程，并发由maxInFlight限制；
+ * 否则使用parallelism个平台线程。
+ */
+@Slf4j
+public class BatchAnalyzer implements AutoCloseable {
+    /**
+     * Phaser最多65535个参与方，drain自身占一个，每个在途任务占一个
+     */
+    private static final int MAX_IN_FLIGHT = 65534;
+
+    private final Executor executor;
+    /**
+     * 自行创建的线程池，close时关闭；使用外部线程池时为null
+     */
+    private final ExecutorService ownedExecutor;
+    private final Semaphore inFlight;
+
+    /**
+     * @param parallelism    平台线程数，默认CPU核数
+     * @param maxInFlight    最大在途任务数，默认parallelism * 4，不超过65534
+     * @param virtualThreads 是否使用虚拟线程
+     * @param executor       自定义线程池，设置后忽略parallelism和virtualThreads，close时不会关闭
+     */
+    @Builder
+    private BatchAnalyzer(Integer parallelism, Integer maxInFlight, boolean virtualThreads, ExecutorService executor) {
+        this((Executor) executor, parallelism, maxInFlight, virtualThreads);
+    }
+
+    /**
+     * 供同包的扫描器使用，允许传入任意Executor
+     *
+     * @param executor       自定义线程池，为null时按parallelism和virtualThreads创建，close时关闭
+     * @param parallelism    平台线程数，默认CPU核数
+     * @param maxInFlight    最大在途任务数，默认parallelism * 4
+     * @param virtualThreads 是否使用虚拟线程
+     */
+    BatchAnalyzer(Executor executor, Integer parallelism, Integer maxInFlight, boolean virtualThreads) {
+        int threads = parallelism == null ? Runtime.getRuntime().availableProcessors() : parallelism;
+        int permits = maxInFlight == null ? threads * 4 : maxInFlight;
+        Preconditions.checkArgument(threads > 0, "parallelism must be positive");
+        Preconditions.checkArgument(permits > 0 && permits <= MAX_IN_FLIGHT, "maxInFlight must be in [1, %s]", MAX_IN_FLIGHT);
+
+        this.inFlight = new Semaphore(permits);
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+            this.ownedExecutor = virtual != null ? virtual : Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+            this.executor = ownedExecutor;
+        }
+    }
+
+    /**
+     * 提交一个类，在途任务已满时阻塞
+     *
+     * @param className 类名，从当前ClassLoader读取
+     * @return
+     */
+    public CompletableFuture<ClassDependency> submit(String className) {
+        return submit(className, () -> JavassistUtil.analyze(className), false);
+    }
+
+    /**
+     * 提交一个字节码来源，在途任务已满时阻塞
+     *
+     * @param source 字节码来源
+     * @return
+     */
+    public CompletableFuture<ClassDependency> submit(ClassSource source) {
+        return submit(source.name(), () -> JavassistUtil.analyze(source.read()), true);
+    }
+
+    /**
+     * 批量提交类名
+     *
+     * @param classNames 类名
+     * @return 与输入顺序一致
+     */
+    public List<CompletableFuture<ClassDependency>> submitAll(Collection<String> classNames) {
+        return classNames.stream().map(this::submit).collect(Collectors.toList());
+    }
+
+    /**
+     * 分析类名流，结果推送给consumer（会被多个线程同时调用），全部完成后返回；失败的类记录日志后跳过，
+     * consumer抛出异常时停止提交，等待已提交的任务结束后抛出第一个异常
+     *
+     * @param classNames 类名
+     * @param consumer   结果消费
+     */
+    public void analyze(Stream<String> classNames, Consumer<ClassDependency> consumer) throws InterruptedException {
+        drain(classNames.map(className -> () -> submit(className)), consumer);
+    }
+
+    /**
+     * 分析字节码来源流，结果推送给consumer（会被多个线程同时调用），全部完成后返回；失败的类记录日志后跳过，
+     * consumer抛出异常时停止提交，等待已提交的任务结束后抛出第一个异常
+     *
+     * @param sources  字节码来源
+     * @param consumer 结果消费
+     */
+    public void analyzeSources(Stream<ClassSource> sources, Consumer<ClassDependency> consumer) throws InterruptedException {
+        drain(sources.map(source -> () -> submit(source)), consumer);
+    }
+
+    /**
+     * 依次执行任务，在途任务已满时阻塞，全部完成后返回；任务自行记录失败，
+     * 仍然抛出的异常（如Error）会停止提交，等待已提交的任务结束后重新抛出
+     *
+     * @param tasks 任务
+     */
+    void execute(Stream<Runnable> tasks) throws InterruptedException {
+        drain(tasks.map(task -> () -> submit(null, () -> {
+            try {
+                task.run();
+                return null;
+            } catch (RuntimeException | Error e) {
+                return e;
+            }
+        }, false)), (Throwable failure) -> {
+            if (failure != null) {
+                Throwables.throwIfUnchecked(failure);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 逐个提交，只跟踪在途数量，不保留已完成的future
+     * <p>
+     * 拿到许可后才注册，注册的任务都持有许可（回调在释放许可前执行，或在提交线程中立即执行），参与方不超过maxInFlight + 1。
+     * 被中断时停止提交，等待已提交的任务结束后抛出InterruptedException；consumer抛出异常时记录第一个异常，
+     * 停止提交并不再调用consumer，等待已提交的任务结束后抛出。返回或抛出异常后不会再调用consumer
+     */
+    private <T> void drain(Stream<Submission<T>> submissions, Consumer<T> consumer) throws InterruptedException {
+        Phaser phaser = new Phaser(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Consumer<Submission<T>> track = submission -> {
+            CompletableFuture<T> future = submission.submit();
+            phaser.register();
+            future.whenComplete((result, e) -> {
+                try {
+                    if (e == null && failure.get() == null) {
+                        consumer.accept(result);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    phaser.arriveAndDeregister();
+                }
+            });
+        };
+        try {
+            // 逐个拉取输入，中断或失败后不再读取剩余输入
+            Spliterator<Submission<T>> remaining = submissions.spliterator();
+            boolean more = true;
+            while (more && !Thread.currentThread().isInterrupted() && failure.get() == null) {
+                more = remaining.tryAdvance(track);
+            }
+        } finally {
+            // 遍历输入失败时也要等待已提交的任务，调用方可能随后释放任务使用的资源
+            phaser.awaitAdvance(phaser.arrive());
+        }
+        Throwable first = failure.get();
+        if (first != null) {
+            Throwables.throwIfUnchecked(first);
+            throw new IllegalStateException(first);
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * @param source        来源名称，用于失败日志，为null时不记录（任务自行处理失败）
+     * @param task          任务
+     * @param notifyFailure 失败时是否通知{@link JavassistUtil#getAnalysisListener()}
+     */
+    private <T> CompletableFuture<T> submit(String source, Task<T> task, boolean notifyFailure) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.run());
+                } catch (Throwable e) {
+                    if (source != null) {
+                        log.warn("Failed to analyze {}", source, e);
+                    }
+                    if (notifyFailure) {
+                        JavassistUtil.getAnalysisListener().onFailure(source, e);
+                    }
+                    future.completeExceptionally(e);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * JDK 21+的Executors.newVirtualThreadPerTaskExecutor()，不支持时返回null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            log.info("Virtual threads are not supported, fall back to platform threads");
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Submission<T> {
+        CompletableFuture<T> submit();
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "batch-analyzer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * 字节码来源，用于批量分析不在classpath上的类
+ */
+public interface ClassSource {
+
+    /**
+     * 来源描述，如文件路径，用于日志和失败通知
+     *
+     * @return
+     */
+    String name();
+
+    /**
+     * 读取字节码
+     *
+     * @return
+     */
+    ByteBuffer read() throws IOException;
+
+    static ClassSource of(String name, byte[] bytes) {
+        return new ClassSource() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public ByteBuffer read() {
+                return ByteBuffer.wrap(bytes);
+            }
+        };
+    }
+
+    /**
+     * class文件，读取方式同{@link DependencyScanner}，大文件内存映射，小文件读入堆内
+     */
+    static ClassSource of(Path path) {
+        return new ClassSource() {
+            @Override
+            public String name() {
+                return path.toString();
+            }
+
+            @Override
+            public ByteBuffer read() throws IOException {
+                return DependencyScanner.readClassFile(path);
+            }
+        };
+    }
+}
@@ -0,0 +1,308 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Streams;
+import com.google.common.io.ByteStreams;
+
+import javassist.bytecode.ClassFile;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.EdgeSink;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+import top.zhuyuncheng.box.clazz.index.DependencyIndex;
+
+/**
+ * 批量扫描jar、class目录、class文件的依赖，每个class并行分析
+ * <p>
+ * 大于{@link #MAP_THRESHOLD}的class文件通过内存映射读取，其余读入堆内ByteBuffer；jar通过ZipFile按entry流式读取，不会加载类。
+ * 无法读取的路径（不存在、不是jar或jar已损坏）记录日志并通知AnalysisListener后跳过，不影响其他路径。
+ * 文件、jar entry边遍历边提交，在途任务数由{@link BatchAnalyzer}限制，内存占用与类的数量无关
+ */
+@Slf4j
+@Builder
+public class DependencyScanner {
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String META_INF = "META-INF/";
+    /**
+     * 小文件建立映射的开销高于直接读取，超过该大小才使用内存映射
+     */
+    static final int MAP_THRESHOLD = 256 * 1024;
+
+    /**
+     * 执行分析的线程池，扫描结束后不会关闭；为null时每次扫描创建parallelism个线程，结束后关闭
+     */
+    private final Executor executor;
+
+    /**
+     * 未设置executor时的线程数，默认CPU核数
+     */
+    private final Integer parallelism;
+
+    /**
+     * 最大在途任务数，达到后暂停遍历，默认parallelism * 4
+     */
+    private final Integer maxInFlight;
+
+    /**
+     * 依赖索引，设置后字节码未变化的类直接从索引读取
+     */
+    private final DependencyIndex index;
+
+    /**
+     * 扫描jar、目录或class文件
+     *
+     * @param paths jar、目录或class文件
+     * @return 类名 -> 依赖
+     */
+    public Map<String, ClassDependency> scan(Path... paths) {
+        return scan(Arrays.asList(paths));
+    }
+
+    /**
+     * 扫描jar、目录或class文件
+     *
+     * @param paths jar、目录或class文件
+     * @return 类名 -> 依赖
+     */
+    public Map<String, ClassDependency> scan(Collection<Path> paths) {
+        Map<String, ClassDependency> result = new ConcurrentHashMap<>();
+        scan(paths, dependency -> result.put(dependency.getClassName(), dependency));
+        return result;
+    }
+
+    /**
+     * 扫描jar、目录或class文件，每个类的结果推送给consumer，consumer会被多个线程同时调用
+     *
+     * @param paths    jar、目录或class文件
+     * @param consumer 结果消费
+     */
+    public void scan(Collection<Path> paths, Consumer<ClassDependency> consumer) {
+        visit(paths, new ClassHandler() {
+            @Override
+            public void handle(ByteBuffer buffer) throws IOException {
+                consumer.accept(index != null ? index.analyze(buffer) : JavassistUtil.analyze(buffer));
+            }
+
+            @Override
+            public void handle(InputStream in) throws IOException {
+                // 索引需要完整字节码计算hash
+                consumer.accept(index != null ? index.analyze(ByteStreams.toByteArray(in)) : JavassistUtil.analyze(in));
+            }
+        });
+    }
+
+    /**
+     * 扫描jar、目录或class文件，依赖边直接推送给sink，不为每个类保留Set，sink会被多个线程同时调用
+     *
+     * @param paths jar、目录或class文件
+     * @param sink  依赖边接收方，如{@link top.zhuyuncheng.box.clazz.edge.EdgeFileWriter}
+     */
+    public void scan(Collection<Path> paths, EdgeSink sink) {
+        visit(paths, new ClassHandler() {
+            @Override
+            public void handle(ByteBuffer buffer) throws IOException {
+                if (index != null) {
+                    sink.accept(index.analyze(buffer));
+                } else {
+                    JavassistUtil.analyze(buffer, sink);
+                }
+            }
+
+            @Override
+            public void handle(InputStream in) throws IOException {
+                byte[] bytes = ByteStreams.toByteArray(in);
+                if (index != null) {
+                    sink.accept(index.analyze(bytes));
+                } else {
+                    JavassistUtil.analyze(ByteBuffer.wrap(bytes), sink);
+                }
+            }
+        });
+    }
+
+    /**
+     * 扫描jar、目录或class文件，将解析后的ClassFile推送给consumer，consumer会被多个线程同时调用
+     *
+     * @param paths    jar、目录或class文件
+     * @param consumer ClassFile消费
+     */
+    public void scanClassFiles(Collection<Path> paths, Consumer<ClassFile> consumer) {
+        visit(paths, new ClassHandler() {
+            @Override
+            public void handle(ByteBuffer buffer) throws IOException {
+                consumer.accept(JavassistUtil.readClassFile(buffer));
+            }
+
+            @Override
+            public void handle(InputStream in) throws IOException {
+                consumer.accept(JavassistUtil.readClassFile(in));
+            }
+        });
+    }
+
+    private void visit(Collection<Path> paths, ClassHandler handler) {
+        // 只由遍历线程访问
+        List<ZipFile> jars = Lists.newArrayList();
+        try (BatchAnalyzer analyzer = new BatchAnalyzer(executor, parallelism, maxInFlight, false)) {
+            analyzer.execute(paths.stream().flatMap(path -> tasks(path, handler, jars)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scan interrupted", e);
+        } finally {
+            // execute返回时已提交的任务都已结束，不会再读取jar
+            for (ZipFile jar : jars) {
+                closeQuietly(jar);
+            }
+        }
+    }
+
+    /**
+     * 路径下每个class的任务，jar entry按需遍历
+     */
+    private static Stream<Runnable> tasks(Path path, ClassHandler handler, List<ZipFile> jars) {
+        if (Files.isDirectory(path)) {
+            return listClassFiles(path).stream().map(file -> task(() -> handleClassFile(file, handler), file));
+        }
+        if (isClassFile(path.toString())) {
+            return Stream.of(task(() -> handleClassFile(path, handler), path));
+        }
+        ZipFile jar = openJar(path);
+        if (jar == null) {
+            return Stream.empty();
+        }
+        jars.add(jar);
+        // ZipFile.stream()在遍历回调期间持有ZipFile的锁，提交阻塞时任务无法读取entry，因此使用entries()
+        return Streams.stream(Iterators.forEnumeration(jar.entries()))
+                .filter(entry -> !entry.isDirectory() && isClassFile(entry.getName()) && !entry.getName().startsWith(META_INF))
+                .map(entry -> task(() -> handleJarEntry(jar, entry, handler), path + "!/" + entry.getName()));
+    }
+
+    private static Runnable task(ScanTask task, Object source) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                // 单个类解析失败不影响整体扫描
+                log.warn("Failed to analyze {}", source, e);
+                JavassistUtil.getAnalysisListener().onFailure(String.valueOf(source), e);
+            }
+        };
+    }
+
+    /**
+     * 目录下的class文件，遍历失败时跳过整个目录
+     */
+    private static List<Path> listClassFiles(Path dir) {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(p -> isClassFile(p.toString()) && Files.isRegularFile(p))
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            skip(dir, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 打开jar，不是文件或不是zip格式时返回null
+     */
+    private static ZipFile openJar(Path path) {
+        if (!Files.isRegularFile(path)) {
+            log.warn("Skip {}, not a jar, class directory or class file", path);
+            return null;
+        }
+        try {
+            return new ZipFile(path.toFile());
+        } catch (IOException e) {
+            skip(path, e);
+            return null;
+        }
+    }
+
+    private static void skip(Path path, Exception e) {
+        log.warn("Failed to read {}, skipped", path, e);
+        JavassistUtil.getAnalysisListener().onFailure(path.toString(), e);
+    }
+
+    private static void handleClassFile(Path file, ClassHandler handler) throws Exception {
+        handler.handle(readClassFile(file));
+    }
+
+    /**
+     * 读取class文件，超过{@link #MAP_THRESHOLD}时内存映射，否则读入堆内ByteBuffer
+     *
+     * @param file class文件
+     * @return position为0，limit为文件大小
+     */
+    static ByteBuffer readClassFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Unexpected end of " + file);
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    private static void handleJarEntry(ZipFile jar, ZipEntry entry, ClassHandler handler) throws Exception {
+        try (InputStream in = jar.getInputStream(entry)) {
+            handler.handle(in);
+        }
+    }
+
+    private static boolean isClassFile(String name) {
+        return name.endsWith(CLASS_SUFFIX);
+    }
+
+    private static void closeQuietly(ZipFile jar) {
+        try {
+            jar.close();
+        } catch (IOException e) {
+            log.warn("Failed to close {}", jar.getName(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ScanTask {
+        void run() throws Exception;
+    }
+
+    /**
+     * class文件以ByteBuffer传入，jar entry以流传入
+     */
+    private interface ClassHandler {
+        void handle(ByteBuffer buffer) throws Exception;
+
+        void handle(InputStream in) throws Exception;
+    }
+}
@@ -0,0 +1,298 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Singular;
+import lombok.extern.slf4j.Slf4j;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+
+/**
+ * 监听class输出目录，class文件变化后只重新分析变化的文件，增量更新内存中的依赖
+ * <p>
+ * 创建时先全量分析一次，之后由后台线程通过WatchService接收变化。变化先做防抖：
+ * 静默debounceMillis后（或距第一个变化超过maxDelayMillis）作为一批处理，
+ * 编译器一次输出的多个文件合并为一次更新。
+ */
+@Slf4j
+public class DependencyWatcher implements AutoCloseable {
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final List<Path> directories;
+    private final long debounceMillis;
+    private final long maxDelayMillis;
+    private final Consumer<Update> listener;
+
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    /**
+     * 已注册的目录，key失效（目录被删除）时移除，重新创建的目录会再次注册
+     */
+    private final Map<Path, WatchKey> directoryKeys = new ConcurrentHashMap<>();
+    private final Map<Path, String> files = new ConcurrentHashMap<>();
+    private final Map<String, ClassDependency> dependencies = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * @param directories    class输出目录，子目录会一并监听
+     * @param debounceMillis 防抖时间，默认50ms
+     * @param maxDelayMillis 持续有变化时一批最长等待时间，默认500ms
+     * @param listener       每批更新后的回调，在监听线程中执行
+     */
+    @Builder
+    private DependencyWatcher(@Singular List<Path> directories, Long debounceMillis, Long maxDelayMillis,
+                              Consumer<Update> listener) throws IOException {
+        Preconditions.checkArgument(!directories.isEmpty(), "directories must not be empty");
+        this.directories = directories.stream().map(dir -> dir.toAbsolutePath().normalize()).collect(ImmutableList.toImmutableList());
+        this.debounceMillis = debounceMillis == null ? 50 : debounceMillis;
+        this.maxDelayMillis = maxDelayMillis == null ? 500 : maxDelayMillis;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+
+        try {
+            // 先注册再全量分析，分析期间的变化不会丢失
+            registerAll(this.directories).parallelStream().forEach(file -> analyze(file, null));
+        } catch (IOException | RuntimeException e) {
+            try {
+                watchService.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+
+        this.thread = new Thread(this::run, "dependency-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 类的依赖
+     *
+     * @param className 类名
+     * @return 不存在时返回null
+     */
+    public ClassDependency get(String className) {
+        return dependencies.get(className);
+    }
+
+    /**
+     * 当前所有类的依赖，只读视图，随更新变化
+     *
+     * @return 类名 -> 依赖
+     */
+    public Map<String, ClassDependency> dependencies() {
+        return Collections.unmodifiableMap(dependencies);
+    }
+
+    /**
+     * 已处理的批次数，每批更新后加1
+     *
+     * @return
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                WatchKey key = watchService.take();
+                Set<Path> changed = Sets.newLinkedHashSet();
+                boolean overflow = collect(key, changed);
+                long deadline = System.currentTimeMillis() + maxDelayMillis;
+                while ((key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(key, changed);
+                    if (System.currentTimeMillis() >= deadline) {
+                        break;
+                    }
+                }
+                process(changed, overflow);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to process class file changes", e);
+            }
+        }
+    }
+
+    /**
+     * @return 是否有事件丢失（OVERFLOW）
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path dir = keys.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+            } else if (dir != null) {
+                changed.add(dir.resolve((Path) event.context()));
+            }
+        }
+        if (!key.reset()) {
+            Path removed = keys.remove(key);
+            if (removed != null) {
+                directoryKeys.remove(removed, key);
+            }
+        }
+        return overflow;
+    }
+
+    private void process(Set<Path> changed, boolean overflow) throws IOException {
+        if (overflow) {
+            // 事件丢失时对比全部文件
+            changed.addAll(files.keySet());
+            changed.addAll(registerAll(directories));
+        }
+
+        Map<String, ClassDependency> updated = Maps.newHashMap();
+        Set<String> removed = Sets.newHashSet();
+        for (Path path : changed) {
+            if (Files.isDirectory(path)) {
+                // 新建的目录需要注册，其中已有的文件不会再产生事件
+                if (!isRegistered(path)) {
+                    for (Path file : registerAll(Collections.singletonList(path))) {
+                        analyze(file, updated);
+                    }
+                }
+            } else if (isClassFile(path) && Files.isRegularFile(path)) {
+                analyze(path, updated);
+            } else if (!Files.exists(path)) {
+                // 删除的class文件或目录
+                for (Path file : files.keySet()) {
+                    if (file.startsWith(path)) {
+                        remove(file, removed);
+                    }
+                }
+            }
+        }
+        removed.removeAll(updated.keySet());
+
+        generation.incrementAndGet();
+        if (listener != null && (!updated.isEmpty() || !removed.isEmpty())) {
+            listener.accept(Update.builder().updated(updated).removed(removed).build());
+        }
+    }
+
+    /**
+     * 分析class文件，依赖有变化时记录到updated
+     * 编译器可能正在写入，失败时忽略，写入完成后会再收到变化
+     */
+    private void analyze(Path file, Map<String, ClassDependency> updated) {
+        ClassDependency dependency;
+        try {
+            dependency = JavassistUtil.analyze(file);
+        } catch (Exception e) {
+            log.debug("Failed to analyze {}", file, e);
+            return;
+        }
+        String className = dependency.getClassName();
+        String previous = files.put(file, className);
+        if (previous != null && !previous.equals(className)) {
+            dependencies.remove(previous);
+        }
+        ClassDependency old = dependencies.put(className, dependency);
+        if (updated != null && !dependency.equals(old)) {
+            updated.put(className, dependency);
+        }
+    }
+
+    private void remove(Path file, Set<String> removed) {
+        String className = files.remove(file);
+        if (className != null && dependencies.remove(className) != null) {
+            removed.add(className);
+        }
+    }
+
+    /**
+     * 注册目录及其子目录
+     *
+     * @return 目录下的class文件
+     */
+    private List<Path> registerAll(List<Path> roots) throws IOException {
+        List<Path> classFiles = Lists.newArrayList();
+        for (Path root : roots) {
+            List<Path> paths;
+            try (Stream<Path> stream = Files.walk(root)) {
+                paths = stream.collect(Collectors.toList());
+            }
+            for (Path path : paths) {
+                if (Files.isDirectory(path)) {
+                    register(path);
+                } else if (isClassFile(path) && Files.isRegularFile(path)) {
+                    classFiles.add(path);
+                }
+            }
+        }
+        return classFiles;
+    }
+
+    private void register(Path dir) throws IOException {
+        if (isRegistered(dir)) {
+            return;
+        }
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        keys.put(key, dir);
+        directoryKeys.put(dir, key);
+    }
+
+    /**
+     * 目录删除后key可能还未被取出处理，因此同时检查key是否仍然有效
+     */
+    private boolean isRegistered(Path dir) {
+        WatchKey key = directoryKeys.get(dir);
+        return key != null && key.isValid();
+    }
+
+    private static boolean isClassFile(Path path) {
+        return path.toString().endsWith(CLASS_SUFFIX);
+    }
+
+    /**
+     * 一批更新
+     * {@link #getUpdated()} 新增或依赖有变化的类
+     * {@link #getRemoved()} 删除的类
+     */
+    @Data
+    @Builder
+    public static class Update {
+        private Map<String, ClassDependency> updated;
+        private Set<String> removed;
+    }
+}
@@ -0,0 +1,91 @@
+package top.zhuyuncheng.box.date;
+
+/**
+ * 公历日期与epoch day之间的换算，只使用int运算，支持的范围为0001-01-01到9999-12-31
+ * <p>
+ * 算法来自Howard Hinnant的days_from_civil/civil_from_days，以3月为一年的开始，闰日位于年末
+ */
+final class CivilDates {
+    static final long MILLIS_PER_DAY = 86_400_000L;
+    static final int SECONDS_PER_DAY = 86_400;
+    /**
+     * 0001-01-01
+     */
+    static final int MIN_EPOCH_DAY = -719_162;
+    /**
+     * 9999-12-31
+     */
+    static final int MAX_EPOCH_DAY = 2_932_896;
+
+    private static final int DAYS_0000_03_01 = 719_468;
+    private static final int DAYS_PER_ERA = 146_097;
+
+    private CivilDates() {
+    }
+
+    /**
+     * 日期对应的epoch day
+     *
+     * @param year  年，1-9999
+     * @param month 月，1-12
+     * @param day   日，1-31
+     * @return
+     */
+    static int toEpochDay(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = year / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * DAYS_PER_ERA + dayOfEra - DAYS_0000_03_01;
+    }
+
+    /**
+     * epoch day对应的日期，打包为int：年 &lt;&lt; 9 | 月 &lt;&lt; 5 | 日，用{@link #year(int)}、{@link #month(int)}、{@link #day(int)}取出
+     *
+     * @param epochDay epoch day，{@link #MIN_EPOCH_DAY}-{@link #MAX_EPOCH_DAY}
+     * @return
+     */
+    static int fromEpochDay(int epochDay) {
+        int z = epochDay + DAYS_0000_03_01;
+        int era = z / DAYS_PER_ERA;
+        int dayOfEra = z - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+
+    static int year(int packed) {
+        return packed >>> 9;
+    }
+
+    static int month(int packed) {
+        return (packed >>> 5) & 0x0F;
+    }
+
+    static int day(int packed) {
+        return packed & 0x1F;
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+}
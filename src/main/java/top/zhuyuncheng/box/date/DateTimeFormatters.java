@@ -0,0 +1,145 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import lombok.Data;
+
+/**
+ * DateTimeFormatter缓存，避免每次调用DateTimeFormatter.ofPattern重新解析格式
+ * <p>
+ * 常用格式（{@link DateTimes}中的内置格式以及{@link #register(String)}注册的格式）常驻，
+ * 其余格式按(pattern, Locale)缓存，最多{@link #MAXIMUM_SIZE}个，超出后淘汰最近最少使用的。
+ */
+public final class DateTimeFormatters {
+    public static final int MAXIMUM_SIZE = 1024;
+
+    /**
+     * {@link DateTimes#DATETIME_PATTERN}
+     */
+    static final DateTimeFormatter SECOND_DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DateTimes.DATETIME_PATTERN);
+
+    private static final Map<String, DateTimeFormatter> PINNED = new ConcurrentHashMap<>();
+    private static final Cache<Key, DateTimeFormatter> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+    private static final Cache<Key, DateTimeFormatter> PARSERS = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build();
+
+    static {
+        PINNED.put(DateTimes.ISO_LOCAL_DATETIME_PATTERN, DateTimes.LOCAT_DATETIME_FORMATTER);
+        PINNED.put(DateTimes.ISO_DATETIME_PATTERN, DateTimes.DATETIME_FORMATTER);
+        PINNED.put(DateTimes.DATETIME_PATTERN, SECOND_DATETIME_FORMATTER);
+        PINNED.put(DateTimes.DATE_PATTERN, DateTimes.DATE_FORMATTER);
+    }
+
+    private DateTimeFormatters() {
+    }
+
+    /**
+     * 默认Locale的formatter，等价于DateTimeFormatter.ofPattern(pattern)
+     *
+     * @param pattern 时间格式
+     * @return
+     */
+    public static DateTimeFormatter of(String pattern) {
+        DateTimeFormatter formatter = PINNED.get(pattern);
+        if (formatter != null) {
+            return formatter;
+        }
+        return of(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+    /**
+     * 指定Locale的formatter，等价于DateTimeFormatter.ofPattern(pattern, locale)
+     *
+     * @param pattern 时间格式
+     * @param locale  Locale
+     * @return
+     */
+    public static DateTimeFormatter of(String pattern, Locale locale) {
+        Key key = new Key(Objects.requireNonNull(pattern), Objects.requireNonNull(locale));
+        DateTimeFormatter formatter = CACHE.getIfPresent(key);
+        if (formatter == null) {
+            // 格式错误时直接抛出IllegalArgumentException，不缓存
+            formatter = DateTimeFormatter.ofPattern(pattern, locale);
+            CACHE.put(key, formatter);
+        }
+        return formatter;
+    }
+
+    /**
+     * 用于解析的formatter，默认Locale，使用ResolverStyle.STRICT，不合法的日期时间（如02-30、24:00）解析失败，不会被调整
+     * <p>
+     * STRICT下yyyy（year-of-era）缺少纪元时无法解析出日期，格式中没有G时将y替换为u（proleptic year）
+     *
+     * @param pattern 时间格式
+     * @return
+     */
+    static DateTimeFormatter parser(String pattern) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Key key = new Key(Objects.requireNonNull(pattern), locale);
+        DateTimeFormatter parser = PARSERS.getIfPresent(key);
+        if (parser == null) {
+            parser = DateTimeFormatter.ofPattern(strictPattern(pattern), locale).withResolverStyle(ResolverStyle.STRICT);
+            PARSERS.put(key, parser);
+        }
+        return parser;
+    }
+
+    /**
+     * 引号外的y替换为u，格式中有纪元（G）时不替换
+     */
+    static String strictPattern(String pattern) {
+        StringBuilder builder = new StringBuilder(pattern.length());
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (c == 'G') {
+                    return pattern;
+                }
+                if (c == 'y') {
+                    c = 'u';
+                }
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 注册常用格式，使用当前默认Locale，注册后不会被淘汰
+     *
+     * @param pattern 时间格式
+     * @return
+     */
+    public static DateTimeFormatter register(String pattern) {
+        return PINNED.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    /**
+     * 缓存的formatter数量（不含常驻格式）
+     *
+     * @return
+     */
+    public static long cachedCount() {
+        return CACHE.size();
+    }
+
+    @Data
+    private static final class Key {
+        private final String pattern;
+        private final Locale locale;
+    }
+}
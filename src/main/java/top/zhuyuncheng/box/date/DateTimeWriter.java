@@ -0,0 +1,299 @@
+package top.zhuyuncheng.box.date;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 将时间直接写入StringBuilder/Appendable、char[]或ByteBuffer
+ * <p>
+ * 内置格式（{@link DateTimes#DATE_PATTERN}、{@link DateTimes#DATETIME_PATTERN}、{@link DateTimes#ISO_DATETIME_PATTERN}、
+ * {@link DateTimes#ISO_LOCAL_DATETIME_PATTERN}）按位写入数字，不产生对象；时间戳通过{@link ZoneOffsets}换算本地时间，
+ * 不创建Instant/LocalDateTime。其他格式或年份超出1-9999时使用DateTimeFormatter。
+ */
+public final class DateTimeWriter {
+    /**
+     * 内置格式的最大长度
+     */
+    public static final int MAX_LENGTH = 23;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+    private DateTimeWriter() {
+    }
+
+    /**
+     * 按格式写入时间戳
+     *
+     * @param builder     输出
+     * @param epochMillis 时间戳（毫秒）
+     * @param pattern     时间格式
+     * @param zoneId      ZoneId
+     * @return builder
+     */
+    public static StringBuilder append(StringBuilder builder, long epochMillis, String pattern, ZoneId zoneId) {
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, epochMillis, pattern, zoneId);
+        if (length < 0) {
+            DateTimeFormatters.of(pattern).formatTo(toLocalDateTime(epochMillis, zoneId), builder);
+            return builder;
+        }
+        return builder.append(buffer, 0, length);
+    }
+
+    public static void append(Appendable out, long epochMillis, String pattern, ZoneId zoneId) throws IOException {
+        if (out instanceof StringBuilder) {
+            append((StringBuilder) out, epochMillis, pattern, zoneId);
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, epochMillis, pattern, zoneId);
+        if (length < 0) {
+            formatTo(DateTimeFormatters.of(pattern), toLocalDateTime(epochMillis, zoneId), out);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.append(buffer[i]);
+        }
+    }
+
+    /**
+     * 按格式写入char[]
+     *
+     * @param dest        输出，剩余空间不足时抛出ArrayIndexOutOfBoundsException
+     * @param offset      起始位置
+     * @param epochMillis 时间戳（毫秒）
+     * @param pattern     时间格式
+     * @param zoneId      ZoneId
+     * @return 写入的字符数
+     */
+    public static int format(char[] dest, int offset, long epochMillis, String pattern, ZoneId zoneId) {
+        int length = write(dest, offset, epochMillis, pattern, zoneId);
+        if (length < 0) {
+            return copy(DateTimeFormatters.of(pattern).format(toLocalDateTime(epochMillis, zoneId)), dest, offset);
+        }
+        return length;
+    }
+
+    /**
+     * 按格式写入ByteBuffer（ASCII），从position开始写入并移动position
+     *
+     * @param dest        输出
+     * @param epochMillis 时间戳（毫秒）
+     * @param pattern     时间格式
+     * @param zoneId      ZoneId
+     * @return 写入的字节数
+     */
+    public static int format(ByteBuffer dest, long epochMillis, String pattern, ZoneId zoneId) {
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, epochMillis, pattern, zoneId);
+        if (length < 0) {
+            return put(DateTimeFormatters.of(pattern).format(toLocalDateTime(epochMillis, zoneId)), dest);
+        }
+        return put(buffer, length, dest);
+    }
+
+    /**
+     * 按formatter写入LocalDateTime，formatter为内置格式的缓存实例时按位写入
+     *
+     * @param builder   输出
+     * @param dateTime  LocalDateTime
+     * @param formatter formatter
+     * @return builder
+     */
+    public static StringBuilder append(StringBuilder builder, LocalDateTime dateTime, DateTimeFormatter formatter) {
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, dateTime, Layout.of(formatter));
+        if (length < 0) {
+            formatter.formatTo(dateTime, builder);
+            return builder;
+        }
+        return builder.append(buffer, 0, length);
+    }
+
+    public static void append(Appendable out, LocalDateTime dateTime, DateTimeFormatter formatter) throws IOException {
+        if (out instanceof StringBuilder) {
+            append((StringBuilder) out, dateTime, formatter);
+            return;
+        }
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, dateTime, Layout.of(formatter));
+        if (length < 0) {
+            formatTo(formatter, dateTime, out);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            out.append(buffer[i]);
+        }
+    }
+
+    public static int format(char[] dest, int offset, LocalDateTime dateTime, DateTimeFormatter formatter) {
+        int length = write(dest, offset, dateTime, Layout.of(formatter));
+        return length < 0 ? copy(formatter.format(dateTime), dest, offset) : length;
+    }
+
+    public static int format(ByteBuffer dest, LocalDateTime dateTime, DateTimeFormatter formatter) {
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, dateTime, Layout.of(formatter));
+        return length < 0 ? put(formatter.format(dateTime), dest) : put(buffer, length, dest);
+    }
+
+    /**
+     * 格式化为String，内置格式只分配结果String
+     */
+    static String toString(LocalDateTime dateTime, DateTimeFormatter formatter) {
+        char[] buffer = BUFFER.get();
+        int length = write(buffer, 0, dateTime, Layout.of(formatter));
+        return length < 0 ? formatter.format(dateTime) : new String(buffer, 0, length);
+    }
+
+    /**
+     * @return 非内置格式返回-1
+     */
+    private static int write(char[] dest, int offset, long epochMillis, String pattern, ZoneId zoneId) {
+        Layout layout = Layout.of(pattern);
+        if (layout == null) {
+            return -1;
+        }
+        long epochSecond = Math.floorDiv(epochMillis, 1000);
+        int milli = (int) (epochMillis - epochSecond * 1000);
+        long localSecond = epochSecond + ZoneOffsets.offsetSeconds(zoneId, epochSecond);
+        long epochDay = Math.floorDiv(localSecond, CivilDates.SECONDS_PER_DAY);
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            return -1;
+        }
+        int secondOfDay = (int) (localSecond - epochDay * CivilDates.SECONDS_PER_DAY);
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        return write(dest, offset, layout, CivilDates.year(date), CivilDates.month(date), CivilDates.day(date),
+                secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, milli);
+    }
+
+    private static int write(char[] dest, int offset, LocalDateTime dateTime, Layout layout) {
+        int year = dateTime.getYear();
+        if (layout == null || year < 1 || year > 9999) {
+            return -1;
+        }
+        return write(dest, offset, layout, year, dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1_000_000);
+    }
+
+    /**
+     * yyyy-MM-dd[?HH:mm:ss[.SSS]]
+     */
+    private static int write(char[] dest, int offset, Layout layout, int year, int month, int day,
+                             int hour, int minute, int second, int milli) {
+        int i = offset;
+        dest[i++] = (char) ('0' + year / 1000);
+        dest[i++] = (char) ('0' + year / 100 % 10);
+        dest[i++] = (char) ('0' + year / 10 % 10);
+        dest[i++] = (char) ('0' + year % 10);
+        dest[i++] = '-';
+        i = write2(dest, i, month);
+        dest[i++] = '-';
+        i = write2(dest, i, day);
+        if (layout == Layout.DATE) {
+            return i - offset;
+        }
+        dest[i++] = layout == Layout.ISO_LOCAL_DATETIME ? 'T' : ' ';
+        i = write2(dest, i, hour);
+        dest[i++] = ':';
+        i = write2(dest, i, minute);
+        dest[i++] = ':';
+        i = write2(dest, i, second);
+        if (layout == Layout.DATETIME) {
+            return i - offset;
+        }
+        dest[i++] = '.';
+        dest[i++] = (char) ('0' + milli / 100);
+        dest[i++] = (char) ('0' + milli / 10 % 10);
+        dest[i++] = (char) ('0' + milli % 10);
+        return i - offset;
+    }
+
+    private static int write2(char[] dest, int i, int value) {
+        dest[i] = (char) ('0' + value / 10);
+        dest[i + 1] = (char) ('0' + value % 10);
+        return i + 2;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis, ZoneId zoneId) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+    }
+
+    private static void formatTo(DateTimeFormatter formatter, LocalDateTime dateTime, Appendable out) throws IOException {
+        try {
+            formatter.formatTo(dateTime, out);
+        } catch (DateTimeException e) {
+            // formatTo将Appendable的IOException包装为DateTimeException
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static int copy(String text, char[] dest, int offset) {
+        text.getChars(0, text.length(), dest, offset);
+        return text.length();
+    }
+
+    private static int put(char[] buffer, int length, ByteBuffer dest) {
+        for (int i = 0; i < length; i++) {
+            dest.put((byte) buffer[i]);
+        }
+        return length;
+    }
+
+    private static int put(String text, ByteBuffer dest) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        dest.put(bytes);
+        return bytes.length;
+    }
+
+    private enum Layout {
+        DATE,
+        DATETIME,
+        ISO_DATETIME,
+        ISO_LOCAL_DATETIME;
+
+        private static Layout of(String pattern) {
+            if (DateTimes.ISO_DATETIME_PATTERN.equals(pattern)) {
+                return ISO_DATETIME;
+            }
+            if (DateTimes.DATETIME_PATTERN.equals(pattern)) {
+                return DATETIME;
+            }
+            if (DateTimes.DATE_PATTERN.equals(pattern)) {
+                return DATE;
+            }
+            if (DateTimes.ISO_LOCAL_DATETIME_PATTERN.equals(pattern)) {
+                return ISO_LOCAL_DATETIME;
+            }
+            return null;
+        }
+
+        /**
+         * 只识别{@link DateTimeFormatters}中常驻的内置格式实例
+         */
+        private static Layout of(DateTimeFormatter formatter) {
+            if (formatter == DateTimes.DATETIME_FORMATTER) {
+                return ISO_DATETIME;
+            }
+            if (formatter == DateTimeFormatters.SECOND_DATETIME_FORMATTER) {
+                return DATETIME;
+            }
+            if (formatter == DateTimes.DATE_FORMATTER) {
+                return DATE;
+            }
+            if (formatter == DateTimes.LOCAT_DATETIME_FORMATTER) {
+                return ISO_LOCAL_DATETIME;
+            }
+            return null;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package top.zhuyuncheng.box.date;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -9,14 +10,24 @@ import java.time.LocalTime;
 import java.time.Period;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalQueries;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import lombok.Builder;
 import lombok.Data;
@@ -71,7 +82,7 @@ public final class DateTimes implements Comparable<DateTimes> {
      * @return
      */
     public static DateTimes now(String pattern, ZoneId zoneId) {
-        return new DateTimes(LocalDateTime.now(), DateTimeFormatter.ofPattern(pattern), zoneId);
+        return new DateTimes(LocalDateTime.now(), DateTimeFormatters.of(pattern), zoneId);
     }
 
     /**
@@ -97,6 +108,9 @@ public final class DateTimes implements Comparable<DateTimes> {
 
     /**
      * 某一时间点
+     * <p>
+     * 严格解析：不存在的日期（如2021-02-30）、未补齐位数的字段（如yyyy-MM-dd下的2021-2-3）以及尾部多余字符
+     * 都抛出RuntimeException。早期基于宽松SimpleDateFormat的实现会接受这些输入（02-30顺延为03-02），属于不兼容变更
      *
      * @param dateTimeStr 时间字符串
      * @param pattern     时间格式
@@ -104,14 +118,40 @@ public final class DateTimes implements Comparable<DateTimes> {
      * @return
      */
     public static DateTimes from(String dateTimeStr, String pattern, ZoneId zoneId) {
-        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern);
+        LocalDateTime dateTime = FastDateTimeParser.parse(dateTimeStr, pattern);
+        if (dateTime == null) {
+            dateTime = parse(dateTimeStr, pattern);
+        }
+        // 字符串按系统默认时区解析（与SimpleDateFormat一致，夏令时重叠时取标准时间），再转换到zoneId
+        ZoneId systemZone = ZoneId.systemDefault();
+        if (!systemZone.equals(zoneId)) {
+            dateTime = dateTime.atZone(systemZone).withLaterOffsetAtOverlap().withZoneSameInstant(zoneId).toLocalDateTime();
+        }
+        return new DateTimes(dateTime, DateTimeFormatters.of(pattern), zoneId);
+    }
+
+    /**
+     * 使用缓存的严格解析formatter，不合法的日期时间抛出异常，格式中缺少的日期字段取1970-01-01，缺少的时间字段取0
+     */
+    private static LocalDateTime parse(String dateTimeStr, String pattern) {
         try {
-            return from(dateFormat.parse(dateTimeStr), pattern, zoneId);
-        } catch (ParseException e) {
-            throw new RuntimeException("Date analysis failed");
+            TemporalAccessor parsed = DateTimeFormatters.parser(pattern).parse(dateTimeStr);
+            LocalDate date = parsed.query(TemporalQueries.localDate());
+            if (date == null) {
+                date = LocalDate.of(field(parsed, ChronoField.YEAR, 1970), field(parsed, ChronoField.MONTH_OF_YEAR, 1),
+                        field(parsed, ChronoField.DAY_OF_MONTH, 1));
+            }
+            LocalTime time = parsed.query(TemporalQueries.localTime());
+            return LocalDateTime.of(date, time == null ? LocalTime.MIDNIGHT : time);
+        } catch (DateTimeException e) {
+            throw new RuntimeException("Date analysis failed: " + dateTimeStr, e);
         }
     }
 
+    private static int field(TemporalAccessor parsed, ChronoField field, int defaultValue) {
+        return parsed.isSupported(field) ? parsed.get(field) : defaultValue;
+    }
+
     /**
      * 某一时间点
      *
@@ -143,7 +183,7 @@ public final class DateTimes implements Comparable<DateTimes> {
      */
     public static DateTimes from(Date date, String pattern, ZoneId zoneId) {
         LocalDateTime dateTime = LocalDateTime.ofInstant(date.toInstant(), zoneId);
-        return new DateTimes(dateTime, DateTimeFormatter.ofPattern(pattern), zoneId);
+        return new DateTimes(dateTime, DateTimeFormatters.of(pattern), zoneId);
     }
 
     /**
@@ -177,7 +217,7 @@ public final class DateTimes implements Comparable<DateTimes> {
      */
     public static DateTimes from(Long date, String pattern, ZoneId zoneId) {
         LocalDateTime dateTime = LocalDateTime.ofInstant(new Date(date).toInstant(), zoneId);
-        return new DateTimes(dateTime, DateTimeFormatter.ofPattern(pattern), zoneId);
+        return new DateTimes(dateTime, DateTimeFormatters.of(pattern), zoneId);
     }
 
     /**
@@ -210,7 +250,7 @@ public final class DateTimes implements Comparable<DateTimes> {
      * @return
      */
     public static DateTimes from(LocalDateTime dateTime, String pattern, ZoneId zoneId) {
-        return new DateTimes(dateTime, DateTimeFormatter.ofPattern(pattern), zoneId);
+        return new DateTimes(dateTime, DateTimeFormatters.of(pattern), zoneId);
     }
 
     /**
@@ -266,6 +306,100 @@ public final class DateTimes implements Comparable<DateTimes> {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 时间区间内的时间，惰性生成
+     * 第i个元素为start加i * step个unit（按start计算，不累加误差），直到超过end为止，每个元素都是新的实例
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位，LocalDateTime支持的单位
+     * @return
+     */
+    public static Stream<DateTimes> stream(DateTimes start, DateTimes end, long step, ChronoUnit unit) {
+        return StreamSupport.stream(spliterator(start, end, step, unit), false);
+    }
+
+    /**
+     * 时间区间内的时间，惰性生成，规则同{@link #stream(DateTimes, DateTimes, long, ChronoUnit)}
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位
+     * @return
+     */
+    public static Iterator<DateTimes> iterator(DateTimes start, DateTimes end, long step, ChronoUnit unit) {
+        return Spliterators.iterator(spliterator(start, end, step, unit));
+    }
+
+    /**
+     * 时间区间内的时间，可拆分，用于并行流
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位
+     * @return
+     */
+    public static Spliterator<DateTimes> spliterator(DateTimes start, DateTimes end, long step, ChronoUnit unit) {
+        return new RangeSpliterator(start, step, unit, 0, count(start.localDateTime, end.localDateTime, step, unit));
+    }
+
+    /**
+     * 时间区间内的时间戳（毫秒），不创建DateTimes
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位
+     * @return
+     */
+    public static LongStream epochMillis(DateTimes start, DateTimes end, long step, ChronoUnit unit) {
+        LocalDateTime first = start.localDateTime;
+        ZoneId zone = start.zoneId;
+        return LongStream.range(0, count(first, end.localDateTime, step, unit))
+                .map(i -> first.plus(i * step, unit).atZone(zone).toInstant().toEpochMilli());
+    }
+
+    /**
+     * 满足start + i * step个unit不晚于end的i的数量
+     * <p>
+     * unit.between从月末开始时会少算（1月31日到2月28日不足1个月，但1月31日加1个月是2月28日），
+     * 只用它估计最后一个下标，再按元素的实际值向前后修正；元素随下标单调不减，修正通常只需一两步
+     */
+    static long count(LocalDateTime first, LocalDateTime last, long step, ChronoUnit unit) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("Step must be positive: " + step);
+        }
+        if (first.isAfter(last)) {
+            return 0;
+        }
+        long index = unit.between(first, last) / step;
+        while (index > 0 && !notAfter(first, index, step, unit, last)) {
+            index--;
+        }
+        while (notAfter(first, index + 1, step, unit, last)) {
+            index++;
+        }
+        return index + 1;
+    }
+
+    /**
+     * first + index * step个unit是否不晚于last，超出LocalDateTime范围时为false
+     */
+    private static boolean notAfter(LocalDateTime first, long index, long step, ChronoUnit unit, LocalDateTime last) {
+        try {
+            return !first.plus(Math.multiplyExact(index, step), unit).isAfter(last);
+        } catch (ArithmeticException | DateTimeException e) {
+            return false;
+        }
+    }
+
+    static DateTimes of(LocalDateTime localDateTime, DateTimeFormatter formatter, ZoneId zoneId) {
+        return new DateTimes(localDateTime, formatter, zoneId);
+    }
+
     private DateTimes() {
         this(LocalDateTime.now());
     }
@@ -297,7 +431,7 @@ public final class DateTimes implements Comparable<DateTimes> {
      * @return
      */
     public DateTimes formatter(String pattern) {
-        this.formatter = DateTimeFormatter.ofPattern(pattern);
+        this.formatter = DateTimeFormatters.of(pattern);
         return from(this.localDateTime.format(this.formatter), pattern, zoneId);
     }
 
@@ -474,7 +608,56 @@ public final class DateTimes implements Comparable<DateTimes> {
      */
     @Override
     public String toString() {
-        return localDateTime.format(formatter);
+        return DateTimeWriter.toString(localDateTime, formatter);
+    }
+
+    /**
+     * 根据当前formatter写入StringBuilder，内置格式不产生中间对象
+     *
+     * @param builder 输出
+     * @return builder
+     */
+    public StringBuilder appendTo(StringBuilder builder) {
+        return DateTimeWriter.append(builder, localDateTime, formatter);
+    }
+
+    /**
+     * 根据当前formatter写入Appendable
+     *
+     * @param out 输出
+     */
+    public void appendTo(Appendable out) throws IOException {
+        DateTimeWriter.append(out, localDateTime, formatter);
+    }
+
+    /**
+     * 根据当前formatter写入char[]
+     *
+     * @param dest   输出
+     * @param offset 起始位置
+     * @return 写入的字符数
+     */
+    public int format(char[] dest, int offset) {
+        return DateTimeWriter.format(dest, offset, localDateTime, formatter);
+    }
+
+    /**
+     * 根据当前formatter写入ByteBuffer，从position开始写入并移动position
+     *
+     * @param dest 输出
+     * @return 写入的字节数
+     */
+    public int format(ByteBuffer dest) {
+        return DateTimeWriter.format(dest, localDateTime, formatter);
+    }
+
+    /**
+     * 转为不可变的ImmutableDateTimes，之后修改当前实例不影响返回的实例
+     *
+     * @return
+     */
+    public ImmutableDateTimes toImmutable() {
+        return ImmutableDateTimes.of(localDateTime, formatter, zoneId);
     }
 
     /**
@@ -515,19 +698,73 @@ public final class DateTimes implements Comparable<DateTimes> {
      * @return
      */
     public Difference difference(DateTimes dateTimes) {
-        Objects.requireNonNull(dateTimes);
-        Period period = Period.between(this.localDateTime.toLocalDate(), dateTimes.localDateTime.toLocalDate());
-        Duration duration = Duration.between(this.localDateTime, dateTimes.localDateTime);
-        return Difference.builder()
-                .years(period.getYears())
-                .months(period.toTotalMonths())
-                .days(duration.toDays())
-                .hours(duration.toHours())
-                .minutes(duration.toMinutes())
-                .seconds(duration.toMillis() / 1000)
-                .millis(duration.toMillis())
-                .nanos(duration.toNanos())
-                .build();
+        return Difference.of(this.localDateTime, Objects.requireNonNull(dateTimes).localDateTime);
+    }
+
+    /**
+     * 按下标计算元素，拆分时对半分下标区间
+     */
+    private static final class RangeSpliterator implements Spliterator<DateTimes> {
+        private final DateTimes start;
+        private final long step;
+        private final ChronoUnit unit;
+        private long index;
+        private final long fence;
+
+        private RangeSpliterator(DateTimes start, long step, ChronoUnit unit, long index, long fence) {
+            this.start = start;
+            this.step = step;
+            this.unit = unit;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super DateTimes> action) {
+            if (index >= fence) {
+                return false;
+            }
+            action.accept(get(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super DateTimes> action) {
+            for (; index < fence; index++) {
+                action.accept(get(index));
+            }
+        }
+
+        @Override
+        public Spliterator<DateTimes> trySplit() {
+            long middle = index + ((fence - index) >>> 1);
+            if (middle <= index) {
+                return null;
+            }
+            RangeSpliterator prefix = new RangeSpliterator(start, step, unit, index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            // DateTimes没有按值实现equals，DISTINCT只能依赖对象标识，不声明
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL | SORTED;
+        }
+
+        @Override
+        public Comparator<? super DateTimes> getComparator() {
+            return null;
+        }
+
+        private DateTimes get(long i) {
+            return new DateTimes(start.localDateTime.plus(Math.multiplyExact(i, step), unit), start.formatter, start.zoneId);
+        }
     }
 
     @Data
@@ -541,5 +778,23 @@ public final class DateTimes implements Comparable<DateTimes> {
         private long seconds;
         private long millis;
         private long nanos;
+
+        /**
+         * start到end的日期差，DateTimes与ImmutableDateTimes共用
+         */
+        static Difference of(LocalDateTime start, LocalDateTime end) {
+            Period period = Period.between(start.toLocalDate(), end.toLocalDate());
+            Duration duration = Duration.between(start, end);
+            return Difference.builder()
+                    .years(period.getYears())
+                    .months(period.toTotalMonths())
+                    .days(duration.toDays())
+                    .hours(duration.toHours())
+                    .minutes(duration.toMinutes())
+                    .seconds(duration.toMillis() / 1000)
+                    .millis(duration.toMillis())
+                    .nanos(duration.toNanos())
+                    .build();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoField;
+import java.util.stream.IntStream;
+
+/**
+ * 时间戳（毫秒）数组的批量转换，结果写入调用方提供的数组，dest[i]对应src[i]
+ * <p>
+ * 每批只创建一个保存当前偏移区间的对象，循环内只做整数运算；格式化只为每个结果创建String。
+ * 按天计算的结果在相邻时间戳属于同一天时直接复用，已排序的数据只在日期变化时计算一次。
+ * 每个方法都有[from, to)的区间版本，配合{@link #parallel(int, RangeTask)}按块并行：
+ * <pre>
+ * EpochArrays.parallel(src.length, (from, to) -&gt; EpochArrays.toDateKeys(src, from, to, dest, zoneId));
+ * </pre>
+ */
+public final class EpochArrays {
+    /**
+     * 并行时每块的元素数量
+     */
+    public static final int CHUNK_SIZE = 1 << 16;
+
+    private EpochArrays() {
+    }
+
+    /**
+     * 将[0, length)按{@link #CHUNK_SIZE}分块，在ForkJoinPool.commonPool中并行执行，不足两块时直接在当前线程执行
+     *
+     * @param length 元素数量
+     * @param task   处理[from, to)的任务，各块写入的区间互不重叠
+     */
+    public static void parallel(int length, RangeTask task) {
+        int chunks = (int) ((length + (long) CHUNK_SIZE - 1) / CHUNK_SIZE);
+        if (chunks <= 1) {
+            task.run(0, length);
+            return;
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * CHUNK_SIZE;
+            task.run(from, (int) Math.min(length, (long) from + CHUNK_SIZE));
+        });
+    }
+
+    /**
+     * 本地日期，格式为yyyyMMdd的int，如20240131
+     *
+     * @param src    时间戳（毫秒）
+     * @param dest   输出
+     * @param zoneId ZoneId
+     */
+    public static void toDateKeys(long[] src, int[] dest, ZoneId zoneId) {
+        toDateKeys(src, 0, src.length, dest, zoneId);
+    }
+
+    public static void toDateKeys(long[] src, int from, int to, int[] dest, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        long lastDay = Long.MIN_VALUE;
+        int lastKey = 0;
+        for (int i = from; i < to; i++) {
+            long epochDay = Math.floorDiv(clock.localMillis(src[i]), CivilDates.MILLIS_PER_DAY);
+            if (epochDay != lastDay) {
+                lastDay = epochDay;
+                lastKey = dateKey(epochDay);
+            }
+            dest[i] = lastKey;
+        }
+    }
+
+    private static int dateKey(long epochDay) {
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+        }
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        return CivilDates.year(date) * 10000 + CivilDates.month(date) * 100 + CivilDates.day(date);
+    }
+
+    /**
+     * 按格式转为字符串，内置格式不经过DateTimeFormatter
+     *
+     * @param src     时间戳（毫秒）
+     * @param dest    输出
+     * @param pattern 时间格式
+     * @param zoneId  ZoneId
+     */
+    public static void format(long[] src, String[] dest, String pattern, ZoneId zoneId) {
+        format(src, 0, src.length, dest, pattern, zoneId);
+    }
+
+    public static void format(long[] src, int from, int to, String[] dest, String pattern, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        StringBuilder builder = new StringBuilder(DateTimeWriter.MAX_LENGTH);
+        for (int i = from; i < to; i++) {
+            builder.setLength(0);
+            // 已换算为本地时间，按UTC写入时不再查询时区
+            DateTimeWriter.append(builder, clock.localMillis(src[i]), pattern, ZoneOffset.UTC);
+            dest[i] = builder.toString();
+        }
+    }
+
+    /**
+     * 按格式依次写入StringBuilder，以separator分隔，不创建String
+     *
+     * @param src       时间戳（毫秒）
+     * @param from      开始下标（包含）
+     * @param to        结束下标（不包含）
+     * @param dest      输出
+     * @param separator 分隔符
+     * @param pattern   时间格式
+     * @param zoneId    ZoneId
+     * @return dest
+     */
+    public static StringBuilder format(long[] src, int from, int to, StringBuilder dest, char separator,
+                                       String pattern, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                dest.append(separator);
+            }
+            DateTimeWriter.append(dest, clock.localMillis(src[i]), pattern, ZoneOffset.UTC);
+        }
+        return dest;
+    }
+
+    /**
+     * 截取到本地日期的开始（00:00:00.000）
+     *
+     * @param src    时间戳（毫秒）
+     * @param dest   输出，可以与src相同
+     * @param zoneId ZoneId
+     */
+    public static void toDayStarts(long[] src, long[] dest, ZoneId zoneId) {
+        toDayStarts(src, 0, src.length, dest, zoneId);
+    }
+
+    public static void toDayStarts(long[] src, int from, int to, long[] dest, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        long lastDay = Long.MIN_VALUE;
+        long lastStart = 0;
+        for (int i = from; i < to; i++) {
+            long epochDay = Math.floorDiv(clock.localMillis(src[i]), CivilDates.MILLIS_PER_DAY);
+            if (epochDay != lastDay) {
+                lastDay = epochDay;
+                lastStart = EpochTimes.fromLocalMillis(epochDay * CivilDates.MILLIS_PER_DAY, zoneId);
+            }
+            dest[i] = lastStart;
+        }
+    }
+
+    /**
+     * 截取到本地月份的开始（1日00:00:00.000）
+     *
+     * @param src    时间戳（毫秒）
+     * @param dest   输出，可以与src相同
+     * @param zoneId ZoneId
+     */
+    public static void toMonthStarts(long[] src, long[] dest, ZoneId zoneId) {
+        toMonthStarts(src, 0, src.length, dest, zoneId);
+    }
+
+    public static void toMonthStarts(long[] src, int from, int to, long[] dest, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        long lastDay = Long.MIN_VALUE;
+        long lastStart = 0;
+        for (int i = from; i < to; i++) {
+            long epochDay = Math.floorDiv(clock.localMillis(src[i]), CivilDates.MILLIS_PER_DAY);
+            if (epochDay != lastDay) {
+                lastDay = epochDay;
+                long firstDay = epochDay - dateField(epochDay, ChronoField.DAY_OF_MONTH) + 1;
+                lastStart = EpochTimes.fromLocalMillis(firstDay * CivilDates.MILLIS_PER_DAY, zoneId);
+            }
+            dest[i] = lastStart;
+        }
+    }
+
+    /**
+     * 取出本地时间的字段，支持YEAR、MONTH_OF_YEAR、DAY_OF_MONTH、HOUR_OF_DAY、MINUTE_OF_HOUR、SECOND_OF_MINUTE
+     *
+     * @param src    时间戳（毫秒）
+     * @param dest   输出
+     * @param field  字段
+     * @param zoneId ZoneId
+     */
+    public static void extract(long[] src, int[] dest, ChronoField field, ZoneId zoneId) {
+        extract(src, 0, src.length, dest, field, zoneId);
+    }
+
+    public static void extract(long[] src, int from, int to, int[] dest, ChronoField field, ZoneId zoneId) {
+        LocalClock clock = new LocalClock(zoneId);
+        switch (field) {
+            case YEAR:
+            case MONTH_OF_YEAR:
+            case DAY_OF_MONTH:
+                long lastDay = Long.MIN_VALUE;
+                int lastValue = 0;
+                for (int i = from; i < to; i++) {
+                    long epochDay = Math.floorDiv(clock.localMillis(src[i]), CivilDates.MILLIS_PER_DAY);
+                    if (epochDay != lastDay) {
+                        lastDay = epochDay;
+                        lastValue = dateField(epochDay, field);
+                    }
+                    dest[i] = lastValue;
+                }
+                break;
+            case HOUR_OF_DAY:
+                for (int i = from; i < to; i++) {
+                    dest[i] = secondOfDay(clock.localMillis(src[i])) / 3600;
+                }
+                break;
+            case MINUTE_OF_HOUR:
+                for (int i = from; i < to; i++) {
+                    dest[i] = secondOfDay(clock.localMillis(src[i])) / 60 % 60;
+                }
+                break;
+            case SECOND_OF_MINUTE:
+                for (int i = from; i < to; i++) {
+                    dest[i] = secondOfDay(clock.localMillis(src[i])) % 60;
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported field " + field);
+        }
+    }
+
+    public static void years(long[] src, int[] dest, ZoneId zoneId) {
+        extract(src, dest, ChronoField.YEAR, zoneId);
+    }
+
+    public static void months(long[] src, int[] dest, ZoneId zoneId) {
+        extract(src, dest, ChronoField.MONTH_OF_YEAR, zoneId);
+    }
+
+    public static void hours(long[] src, int[] dest, ZoneId zoneId) {
+        extract(src, dest, ChronoField.HOUR_OF_DAY, zoneId);
+    }
+
+    private static int dateField(long epochDay, ChronoField field) {
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            return LocalDate.ofEpochDay(epochDay).get(field);
+        }
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        if (field == ChronoField.YEAR) {
+            return CivilDates.year(date);
+        }
+        return field == ChronoField.MONTH_OF_YEAR ? CivilDates.month(date) : CivilDates.day(date);
+    }
+
+    private static int secondOfDay(long localMillis) {
+        return (int) (Math.floorMod(localMillis, CivilDates.MILLIS_PER_DAY) / 1000);
+    }
+
+    /**
+     * 处理[from, to)的任务
+     */
+    @FunctionalInterface
+    public interface RangeTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * 保存最近一次的偏移区间，时间戳在区间内时不查询缓存，非线程安全，每批创建一个
+     */
+    private static final class LocalClock {
+        private final ZoneId zoneId;
+        private ZoneOffsets.Range range;
+
+        private LocalClock(ZoneId zoneId) {
+            this.zoneId = zoneId;
+        }
+
+        private long localMillis(long epochMillis) {
+            long epochSecond = Math.floorDiv(epochMillis, 1000);
+            ZoneOffsets.Range range = this.range;
+            if (range == null || !range.contains(epochSecond)) {
+                range = ZoneOffsets.range(zoneId, epochSecond);
+                this.range = range;
+            }
+            return epochMillis + range.offset * 1000L;
+        }
+    }
+}
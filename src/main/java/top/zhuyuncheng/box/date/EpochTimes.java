@@ -0,0 +1,246 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.function.UnaryOperator;
+
+/**
+ * 以long时间戳（毫秒）表示时间，提供与{@link DateTimes}相同语义的运算，不创建对象
+ * <p>
+ * 运算在zoneId的本地时间上进行，结果换算回时间戳时与LocalDateTime.atZone一致（夏令时重叠取较早的偏移，跳过的时间后移），
+ * 因此plusHours等也按本地时间加减，与DateTimes.from(epochMillis).plusHours(n).toLong()结果相同。
+ * 本地日期在0001-9999年之外时使用LocalDateTime计算。
+ */
+public final class EpochTimes {
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_SECOND = 1_000L;
+
+    private EpochTimes() {
+    }
+
+    /**
+     * 时间戳对应的本地时间，以UTC的epoch millis表示
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long toLocalMillis(long epochMillis, ZoneId zoneId) {
+        long epochSecond = Math.floorDiv(epochMillis, MILLIS_PER_SECOND);
+        return epochMillis + ZoneOffsets.offsetSeconds(zoneId, epochSecond) * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * 本地时间对应的时间戳，{@link #toLocalMillis(long, ZoneId)}的逆运算
+     *
+     * @param localMillis 本地时间，以UTC的epoch millis表示
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long fromLocalMillis(long localMillis, ZoneId zoneId) {
+        long localSecond = Math.floorDiv(localMillis, MILLIS_PER_SECOND);
+        return ZoneOffsets.toEpochSecond(zoneId, localSecond) * MILLIS_PER_SECOND + (localMillis - localSecond * MILLIS_PER_SECOND);
+    }
+
+    /**
+     * 加减年份，日期超出月末时取月末
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param years       年份
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusYears(long epochMillis, long years, ZoneId zoneId) {
+        return plusMonths(epochMillis, Math.multiplyExact(years, 12), zoneId);
+    }
+
+    /**
+     * 加减月份，日期超出月末时取月末
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param months      月份
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusMonths(long epochMillis, long months, ZoneId zoneId) {
+        long local = toLocalMillis(epochMillis, zoneId);
+        long epochDay = Math.floorDiv(local, CivilDates.MILLIS_PER_DAY);
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            return with(epochMillis, zoneId, dateTime -> dateTime.plusMonths(months));
+        }
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        long total = CivilDates.year(date) * 12L + CivilDates.month(date) - 1 + months;
+        long year = Math.floorDiv(total, 12);
+        if (year < 1 || year > 9999) {
+            return with(epochMillis, zoneId, dateTime -> dateTime.plusMonths(months));
+        }
+        int month = (int) (total - year * 12) + 1;
+        int day = Math.min(CivilDates.day(date), CivilDates.lengthOfMonth((int) year, month));
+        return withDay(local, epochDay, CivilDates.toEpochDay((int) year, month, day), zoneId);
+    }
+
+    /**
+     * 加减周
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param weeks       周
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusWeeks(long epochMillis, long weeks, ZoneId zoneId) {
+        return plusDays(epochMillis, Math.multiplyExact(weeks, 7), zoneId);
+    }
+
+    /**
+     * 加减日
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param days        日
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusDays(long epochMillis, long days, ZoneId zoneId) {
+        return plusLocal(epochMillis, Math.multiplyExact(days, CivilDates.MILLIS_PER_DAY), zoneId);
+    }
+
+    /**
+     * 加减小时
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param hours       小时
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusHours(long epochMillis, long hours, ZoneId zoneId) {
+        return plusLocal(epochMillis, Math.multiplyExact(hours, MILLIS_PER_HOUR), zoneId);
+    }
+
+    /**
+     * 加减分钟
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param minutes     分钟
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusMinutes(long epochMillis, long minutes, ZoneId zoneId) {
+        return plusLocal(epochMillis, Math.multiplyExact(minutes, MILLIS_PER_MINUTE), zoneId);
+    }
+
+    /**
+     * 加减秒
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param seconds     秒
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long plusSeconds(long epochMillis, long seconds, ZoneId zoneId) {
+        return plusLocal(epochMillis, Math.multiplyExact(seconds, MILLIS_PER_SECOND), zoneId);
+    }
+
+    /**
+     * 天最小值，00:00:00.000
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long dayMin(long epochMillis, ZoneId zoneId) {
+        long local = toLocalMillis(epochMillis, zoneId);
+        return fromLocalMillis(Math.floorDiv(local, CivilDates.MILLIS_PER_DAY) * CivilDates.MILLIS_PER_DAY, zoneId);
+    }
+
+    /**
+     * 天最大值，23:59:59.999
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long dayMax(long epochMillis, ZoneId zoneId) {
+        long local = toLocalMillis(epochMillis, zoneId);
+        return fromLocalMillis((Math.floorDiv(local, CivilDates.MILLIS_PER_DAY) + 1) * CivilDates.MILLIS_PER_DAY - 1, zoneId);
+    }
+
+    /**
+     * 月初，时间不变
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long firstDayOfMonth(long epochMillis, ZoneId zoneId) {
+        long local = toLocalMillis(epochMillis, zoneId);
+        long epochDay = Math.floorDiv(local, CivilDates.MILLIS_PER_DAY);
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            return with(epochMillis, zoneId, dateTime -> dateTime.with(TemporalAdjusters.firstDayOfMonth()));
+        }
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        return withDay(local, epochDay, epochDay - CivilDates.day(date) + 1, zoneId);
+    }
+
+    /**
+     * 月末，时间不变
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static long lastDayOfMonth(long epochMillis, ZoneId zoneId) {
+        long local = toLocalMillis(epochMillis, zoneId);
+        long epochDay = Math.floorDiv(local, CivilDates.MILLIS_PER_DAY);
+        if (epochDay < CivilDates.MIN_EPOCH_DAY || epochDay > CivilDates.MAX_EPOCH_DAY) {
+            return with(epochMillis, zoneId, dateTime -> dateTime.with(TemporalAdjusters.lastDayOfMonth()));
+        }
+        int date = CivilDates.fromEpochDay((int) epochDay);
+        int year = CivilDates.year(date);
+        int month = CivilDates.month(date);
+        return withDay(local, epochDay, epochDay - CivilDates.day(date) + CivilDates.lengthOfMonth(year, month), zoneId);
+    }
+
+    /**
+     * 时间比较
+     *
+     * @param x 时间戳（毫秒）
+     * @param y 时间戳（毫秒）
+     * @return 同Long.compare
+     */
+    public static int compare(long x, long y) {
+        return Long.compare(x, y);
+    }
+
+    /**
+     * 转为DateTimes
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param pattern     时间格式
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static DateTimes toDateTimes(long epochMillis, String pattern, ZoneId zoneId) {
+        return DateTimes.from(toLocalDateTime(epochMillis, zoneId), pattern, zoneId);
+    }
+
+    private static long plusLocal(long epochMillis, long millis, ZoneId zoneId) {
+        return fromLocalMillis(Math.addExact(toLocalMillis(epochMillis, zoneId), millis), zoneId);
+    }
+
+    /**
+     * 替换本地日期，保留本地时间
+     */
+    private static long withDay(long local, long epochDay, long newEpochDay, ZoneId zoneId) {
+        return fromLocalMillis(local + (newEpochDay - epochDay) * CivilDates.MILLIS_PER_DAY, zoneId);
+    }
+
+    private static long with(long epochMillis, ZoneId zoneId, UnaryOperator<LocalDateTime> operator) {
+        return operator.apply(toLocalDateTime(epochMillis, zoneId)).atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis, ZoneId zoneId) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+    }
+}
@@ -0,0 +1,82 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.LocalDateTime;
+
+/**
+ * 内置格式的解析，直接从CharSequence按固定位置读取数字，不经过DateTimeFormatter
+ * <p>
+ * 只处理严格符合格式且日期合法的输入，其余情况返回null，由调用方使用DateTimeFormatter解析
+ */
+final class FastDateTimeParser {
+
+    private FastDateTimeParser() {
+    }
+
+    /**
+     * @param text    时间字符串
+     * @param pattern 时间格式
+     * @return 非内置格式或输入不符合格式时返回null
+     */
+    static LocalDateTime parse(CharSequence text, String pattern) {
+        if (DateTimes.DATETIME_PATTERN.equals(pattern)) {
+            return text.length() == 19 ? parse(text, ' ', false) : null;
+        }
+        if (DateTimes.ISO_DATETIME_PATTERN.equals(pattern)) {
+            return text.length() == 23 ? parse(text, ' ', true) : null;
+        }
+        if (DateTimes.ISO_LOCAL_DATETIME_PATTERN.equals(pattern)) {
+            return text.length() == 23 ? parse(text, 'T', true) : null;
+        }
+        if (DateTimes.DATE_PATTERN.equals(pattern)) {
+            return text.length() == 10 ? parse(text, ' ', false) : null;
+        }
+        return null;
+    }
+
+    /**
+     * yyyy-MM-dd[?HH:mm:ss[.SSS]]，长度已由调用方检查
+     */
+    private static LocalDateTime parse(CharSequence text, char separator, boolean millis) {
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if ((year | month | day) < 0 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || month < 1 || month > 12 || day < 1 || day > CivilDates.lengthOfMonth(year, month)) {
+            return null;
+        }
+        if (text.length() == 10) {
+            return LocalDateTime.of(year, month, day, 0, 0);
+        }
+
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if ((hour | minute | second) < 0 || text.charAt(10) != separator || text.charAt(13) != ':' || text.charAt(16) != ':'
+                || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        int milli = 0;
+        if (millis) {
+            milli = digits(text, 20, 3);
+            if (milli < 0 || text.charAt(19) != '.') {
+                return null;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, milli * 1_000_000);
+    }
+
+    /**
+     * 读取count位数字，有非数字字符时返回-1
+     */
+    private static int digits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,486 @@
+package top.zhuyuncheng.box.date;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 不可变的{@link DateTimes}，方法与DateTimes相同，但每次操作都返回新的实例，可以缓存、跨线程共享、作为Map的key
+ * <p>
+ * equals/hashCode与{@link #compareTo(ImmutableDateTimes)}一致，按(LocalDateTime, ZoneId)比较，不包含formatter
+ */
+public final class ImmutableDateTimes implements Comparable<ImmutableDateTimes> {
+    private final LocalDateTime localDateTime;
+    private final DateTimeFormatter formatter;
+    private final ZoneId zoneId;
+
+    private ImmutableDateTimes(LocalDateTime localDateTime, DateTimeFormatter formatter, ZoneId zoneId) {
+        this.localDateTime = Objects.requireNonNull(localDateTime);
+        this.formatter = Objects.requireNonNull(formatter);
+        this.zoneId = Objects.requireNonNull(zoneId);
+    }
+
+    static ImmutableDateTimes of(LocalDateTime localDateTime, DateTimeFormatter formatter, ZoneId zoneId) {
+        return new ImmutableDateTimes(localDateTime, formatter, zoneId);
+    }
+
+    /**
+     * 当前时间，默认时间格式yyyy-MM-dd HH:mm:ss.SSS，默认ZoneId
+     *
+     * @return
+     */
+    public static ImmutableDateTimes now() {
+        return new ImmutableDateTimes(LocalDateTime.now(), DateTimes.DATETIME_FORMATTER, ZoneId.systemDefault());
+    }
+
+    /**
+     * 当前时间
+     *
+     * @param pattern 时间格式
+     * @return
+     */
+    public static ImmutableDateTimes now(String pattern) {
+        return now(pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 当前时间
+     *
+     * @param pattern 时间格式
+     * @param zoneId  ZoneId
+     * @return
+     */
+    public static ImmutableDateTimes now(String pattern, ZoneId zoneId) {
+        return new ImmutableDateTimes(LocalDateTime.now(), DateTimeFormatters.of(pattern), zoneId);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTimeStr 时间字符串
+     * @return
+     */
+    public static ImmutableDateTimes from(String dateTimeStr) {
+        return from(DateTimes.from(dateTimeStr));
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTimeStr 时间字符串
+     * @param pattern     时间格式
+     * @return
+     */
+    public static ImmutableDateTimes from(String dateTimeStr, String pattern) {
+        return from(DateTimes.from(dateTimeStr, pattern));
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTimeStr 时间字符串
+     * @param pattern     时间格式
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static ImmutableDateTimes from(String dateTimeStr, String pattern, ZoneId zoneId) {
+        return from(DateTimes.from(dateTimeStr, pattern, zoneId));
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date Date时间
+     * @return
+     */
+    public static ImmutableDateTimes from(Date date) {
+        return from(date, DateTimes.ISO_DATETIME_PATTERN);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date    Date时间
+     * @param pattern 时间格式
+     * @return
+     */
+    public static ImmutableDateTimes from(Date date, String pattern) {
+        return from(date, pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date    Date时间
+     * @param pattern 时间格式
+     * @param zoneId  ZoneId
+     * @return
+     */
+    public static ImmutableDateTimes from(Date date, String pattern, ZoneId zoneId) {
+        return new ImmutableDateTimes(LocalDateTime.ofInstant(date.toInstant(), zoneId), DateTimeFormatters.of(pattern), zoneId);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date 时间戳
+     * @return
+     */
+    public static ImmutableDateTimes from(Long date) {
+        return from(date, DateTimes.ISO_DATETIME_PATTERN);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date    时间戳
+     * @param pattern 时间格式
+     * @return
+     */
+    public static ImmutableDateTimes from(Long date, String pattern) {
+        return from(date, pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param date    时间戳
+     * @param pattern 时间格式
+     * @param zoneId  ZoneId
+     * @return
+     */
+    public static ImmutableDateTimes from(Long date, String pattern, ZoneId zoneId) {
+        return from(new Date(date), pattern, zoneId);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTime LocalDateTime时间
+     * @return
+     */
+    public static ImmutableDateTimes from(LocalDateTime dateTime) {
+        return from(dateTime, DateTimes.ISO_DATETIME_PATTERN);
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTime LocalDateTime时间
+     * @param pattern  时间格式
+     * @return
+     */
+    public static ImmutableDateTimes from(LocalDateTime dateTime, String pattern) {
+        return from(dateTime, pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * 某一时间点
+     *
+     * @param dateTime LocalDateTime时间
+     * @param pattern  时间格式
+     * @param zoneId   ZoneId
+     * @return
+     */
+    public static ImmutableDateTimes from(LocalDateTime dateTime, String pattern, ZoneId zoneId) {
+        return new ImmutableDateTimes(dateTime, DateTimeFormatters.of(pattern), zoneId);
+    }
+
+    /**
+     * DateTimes当前值的快照，之后修改DateTimes不影响返回的实例
+     *
+     * @param dateTimes DateTimes
+     * @return
+     */
+    public static ImmutableDateTimes from(DateTimes dateTimes) {
+        return dateTimes.toImmutable();
+    }
+
+    /**
+     * 时间区间内的时间，规则同{@link #stream(ImmutableDateTimes, ImmutableDateTimes, long, ChronoUnit)}
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param unit  时间单位
+     * @return
+     */
+    public static List<ImmutableDateTimes> between(ImmutableDateTimes start, ImmutableDateTimes end, ChronoUnit unit) {
+        return between(start, end, 1, unit);
+    }
+
+    /**
+     * 时间区间内的时间，规则同{@link #stream(ImmutableDateTimes, ImmutableDateTimes, long, ChronoUnit)}
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位
+     * @return
+     */
+    public static List<ImmutableDateTimes> between(ImmutableDateTimes start, ImmutableDateTimes end, long step,
+                                                   ChronoUnit unit) {
+        return stream(start, end, step, unit).collect(Collectors.toList());
+    }
+
+    /**
+     * 时间区间内的时间，惰性生成，同{@link DateTimes#stream(DateTimes, DateTimes, long, ChronoUnit)}：
+     * 第i个元素为start加i * step个unit，直到超过end为止，元素沿用start的formatter和ZoneId
+     *
+     * @param start 开始时间
+     * @param end   结束时间（包含）
+     * @param step  时间单位步长，大于0
+     * @param unit  时间单位，LocalDateTime支持的单位
+     * @return
+     */
+    public static Stream<ImmutableDateTimes> stream(ImmutableDateTimes start, ImmutableDateTimes end, long step,
+                                                    ChronoUnit unit) {
+        LocalDateTime first = start.localDateTime;
+        return LongStream.range(0, DateTimes.count(first, end.localDateTime, step, unit))
+                .mapToObj(i -> new ImmutableDateTimes(first.plus(i * step, unit), start.formatter, start.zoneId));
+    }
+
+    /**
+     * 转为可变的DateTimes，返回新的实例
+     *
+     * @return
+     */
+    public DateTimes toDateTimes() {
+        return DateTimes.of(localDateTime, formatter, zoneId);
+    }
+
+    /**
+     * 指定时间格式，时间按新格式的精度截取，与{@link DateTimes#formatter(String)}一致
+     *
+     * @param pattern 时间格式
+     * @return
+     */
+    public ImmutableDateTimes formatter(String pattern) {
+        return from(toDateTimes().formatter(pattern));
+    }
+
+    /**
+     * 指定ZoneId
+     *
+     * @param zoneId ZoneId
+     * @return
+     */
+    public ImmutableDateTimes zoneId(ZoneId zoneId) {
+        return new ImmutableDateTimes(localDateTime.atZone(zoneId).toLocalDateTime(), formatter, zoneId);
+    }
+
+    /**
+     * 天最大值
+     *
+     * @return
+     */
+    public ImmutableDateTimes dayMax() {
+        return with(localDateTime.with(LocalTime.MAX));
+    }
+
+    /**
+     * 天最小值
+     *
+     * @return
+     */
+    public ImmutableDateTimes dayMin() {
+        return with(localDateTime.with(LocalTime.MIN));
+    }
+
+    /**
+     * 月初
+     *
+     * @return
+     */
+    public ImmutableDateTimes firstDayOfMonth() {
+        return with(localDateTime.with(TemporalAdjusters.firstDayOfMonth()));
+    }
+
+    /**
+     * 月末
+     *
+     * @return
+     */
+    public ImmutableDateTimes lastDayOfMonth() {
+        return with(localDateTime.with(TemporalAdjusters.lastDayOfMonth()));
+    }
+
+    /**
+     * 加减年份
+     *
+     * @param years 年份
+     * @return
+     */
+    public ImmutableDateTimes plusYears(long years) {
+        return with(localDateTime.plusYears(years));
+    }
+
+    /**
+     * 加减月份
+     *
+     * @param months 月份
+     * @return
+     */
+    public ImmutableDateTimes plusMonths(long months) {
+        return with(localDateTime.plusMonths(months));
+    }
+
+    /**
+     * 加减周
+     *
+     * @param weeks 周
+     * @return
+     */
+    public ImmutableDateTimes plusWeeks(long weeks) {
+        return with(localDateTime.plusWeeks(weeks));
+    }
+
+    /**
+     * 加减日
+     *
+     * @param days 日
+     * @return
+     */
+    public ImmutableDateTimes plusDays(long days) {
+        return with(localDateTime.plusDays(days));
+    }
+
+    /**
+     * 加减小时
+     *
+     * @param hours 小时
+     * @return
+     */
+    public ImmutableDateTimes plusHours(long hours) {
+        return with(localDateTime.plusHours(hours));
+    }
+
+    /**
+     * 加减分钟
+     *
+     * @param minutes 分钟
+     * @return
+     */
+    public ImmutableDateTimes plusMinutes(long minutes) {
+        return with(localDateTime.plusMinutes(minutes));
+    }
+
+    /**
+     * 加减秒
+     *
+     * @param seconds 秒
+     * @return
+     */
+    public ImmutableDateTimes plusSeconds(long seconds) {
+        return with(localDateTime.plusSeconds(seconds));
+    }
+
+    private ImmutableDateTimes with(LocalDateTime dateTime) {
+        return dateTime.equals(localDateTime) ? this : new ImmutableDateTimes(dateTime, formatter, zoneId);
+    }
+
+    public LocalDateTime toLocalDateTime() {
+        return localDateTime;
+    }
+
+    public LocalDate toLocalDate() {
+        return localDateTime.toLocalDate();
+    }
+
+    public LocalTime toLocalTime() {
+        return localDateTime.toLocalTime();
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public Date toDate() {
+        return Date.from(localDateTime.atZone(zoneId).toInstant());
+    }
+
+    /**
+     * 转为时间戳类型
+     *
+     * @return
+     */
+    public long toLong() {
+        return localDateTime.atZone(zoneId).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 根据当前formatter转为String类型
+     *
+     * @return
+     */
+    @Override
+    public String toString() {
+        return DateTimeWriter.toString(localDateTime, formatter);
+    }
+
+    public StringBuilder appendTo(StringBuilder builder) {
+        return DateTimeWriter.append(builder, localDateTime, formatter);
+    }
+
+    public void appendTo(Appendable out) throws IOException {
+        DateTimeWriter.append(out, localDateTime, formatter);
+    }
+
+    public int format(char[] dest, int offset) {
+        return DateTimeWriter.format(dest, offset, localDateTime, formatter);
+    }
+
+    public int format(ByteBuffer dest) {
+        return DateTimeWriter.format(dest, localDateTime, formatter);
+    }
+
+    /**
+     * 先比较LocalDateTime，相同时按ZoneId的id比较
+     *
+     * @param other ImmutableDateTimes
+     * @return
+     */
+    @Override
+    public int compareTo(ImmutableDateTimes other) {
+        int result = localDateTime.compareTo(Objects.requireNonNull(other).localDateTime);
+        return result != 0 ? result : zoneId.getId().compareTo(other.zoneId.getId());
+    }
+
+    /**
+     * 比较日期返回日期差，同{@link DateTimes#difference(DateTimes)}
+     *
+     * @param other ImmutableDateTimes
+     * @return
+     */
+    public DateTimes.Difference difference(ImmutableDateTimes other) {
+        return DateTimes.Difference.of(localDateTime, Objects.requireNonNull(other).localDateTime);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ImmutableDateTimes)) {
+            return false;
+        }
+        ImmutableDateTimes that = (ImmutableDateTimes) o;
+        return localDateTime.equals(that.localDateTime) && zoneId.equals(that.zoneId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * localDateTime.hashCode() + zoneId.hashCode();
+    }
+}
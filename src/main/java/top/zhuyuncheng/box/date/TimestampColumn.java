@@ -0,0 +1,283 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * 以long[]保存的一列时间戳（毫秒），每个时间只占8字节，用于在内存中保存大量时间
+ * <p>
+ * 批量运算（plusDays、dayMin等）就地修改，语义同{@link EpochTimes}，本地时间按列的ZoneId计算。
+ * 非线程安全。
+ */
+public final class TimestampColumn {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ZoneId zoneId;
+    private long[] values;
+    private int size;
+
+    private TimestampColumn(ZoneId zoneId, long[] values, int size) {
+        this.zoneId = Objects.requireNonNull(zoneId);
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * 空列，默认ZoneId
+     *
+     * @return
+     */
+    public static TimestampColumn create() {
+        return create(DEFAULT_CAPACITY, ZoneId.systemDefault());
+    }
+
+    /**
+     * 空列
+     *
+     * @param capacity 初始容量
+     * @param zoneId   ZoneId
+     * @return
+     */
+    public static TimestampColumn create(int capacity, ZoneId zoneId) {
+        Preconditions.checkArgument(capacity >= 0, "capacity must not be negative: %s", capacity);
+        return new TimestampColumn(zoneId, new long[capacity], 0);
+    }
+
+    /**
+     * 复制时间戳数组创建列
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static TimestampColumn of(long[] epochMillis, ZoneId zoneId) {
+        return new TimestampColumn(zoneId, epochMillis.clone(), epochMillis.length);
+    }
+
+    /**
+     * 直接使用数组创建列，不复制，列的修改会写入数组（扩容前）
+     *
+     * @param epochMillis 时间戳（毫秒）
+     * @param zoneId      ZoneId
+     * @return
+     */
+    public static TimestampColumn wrap(long[] epochMillis, ZoneId zoneId) {
+        return new TimestampColumn(zoneId, epochMillis, epochMillis.length);
+    }
+
+    public ZoneId zoneId() {
+        return zoneId;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long get(int index) {
+        return values[checkIndex(index)];
+    }
+
+    public void set(int index, long epochMillis) {
+        values[checkIndex(index)] = epochMillis;
+    }
+
+    public TimestampColumn add(long epochMillis) {
+        ensureCapacity(size + 1);
+        values[size++] = epochMillis;
+        return this;
+    }
+
+    public TimestampColumn add(DateTimes dateTimes) {
+        return add(dateTimes.toLong());
+    }
+
+    public TimestampColumn addAll(long[] epochMillis) {
+        ensureCapacity(size + epochMillis.length);
+        System.arraycopy(epochMillis, 0, values, size, epochMillis.length);
+        size += epochMillis.length;
+        return this;
+    }
+
+    /**
+     * 转为DateTimes
+     *
+     * @param index   下标
+     * @param pattern 时间格式
+     * @return
+     */
+    public DateTimes toDateTimes(int index, String pattern) {
+        return EpochTimes.toDateTimes(get(index), pattern, zoneId);
+    }
+
+    /**
+     * 对每个时间戳执行运算，结果写回
+     *
+     * @param operator 运算
+     * @return this
+     */
+    public TimestampColumn map(LongUnaryOperator operator) {
+        long[] values = this.values;
+        for (int i = 0; i < size; i++) {
+            values[i] = operator.applyAsLong(values[i]);
+        }
+        return this;
+    }
+
+    public TimestampColumn plusYears(long years) {
+        return map(value -> EpochTimes.plusYears(value, years, zoneId));
+    }
+
+    public TimestampColumn plusMonths(long months) {
+        return map(value -> EpochTimes.plusMonths(value, months, zoneId));
+    }
+
+    public TimestampColumn plusWeeks(long weeks) {
+        return map(value -> EpochTimes.plusWeeks(value, weeks, zoneId));
+    }
+
+    public TimestampColumn plusDays(long days) {
+        return map(value -> EpochTimes.plusDays(value, days, zoneId));
+    }
+
+    public TimestampColumn plusHours(long hours) {
+        return map(value -> EpochTimes.plusHours(value, hours, zoneId));
+    }
+
+    public TimestampColumn plusMinutes(long minutes) {
+        return map(value -> EpochTimes.plusMinutes(value, minutes, zoneId));
+    }
+
+    public TimestampColumn plusSeconds(long seconds) {
+        return map(value -> EpochTimes.plusSeconds(value, seconds, zoneId));
+    }
+
+    public TimestampColumn dayMin() {
+        return map(value -> EpochTimes.dayMin(value, zoneId));
+    }
+
+    public TimestampColumn dayMax() {
+        return map(value -> EpochTimes.dayMax(value, zoneId));
+    }
+
+    public TimestampColumn firstDayOfMonth() {
+        return map(value -> EpochTimes.firstDayOfMonth(value, zoneId));
+    }
+
+    public TimestampColumn lastDayOfMonth() {
+        return map(value -> EpochTimes.lastDayOfMonth(value, zoneId));
+    }
+
+    /**
+     * 升序排序
+     *
+     * @return this
+     */
+    public TimestampColumn sort() {
+        Arrays.sort(values, 0, size);
+        return this;
+    }
+
+    /**
+     * 最早的时间，列为空时抛出NoSuchElementException
+     *
+     * @return
+     */
+    public long min() {
+        checkNotEmpty();
+        long min = values[0];
+        for (int i = 1; i < size; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    /**
+     * 最晚的时间，列为空时抛出NoSuchElementException
+     *
+     * @return
+     */
+    public long max() {
+        checkNotEmpty();
+        long max = values[0];
+        for (int i = 1; i < size; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    /**
+     * 在[start, end]之间的时间数量
+     *
+     * @param start 开始时间戳（包含）
+     * @param end   结束时间戳（包含）
+     * @return
+     */
+    public int count(long start, long end) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long value = values[i];
+            if (value >= start && value <= end) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+
+    /**
+     * 复制为数组
+     *
+     * @return
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * 释放多余的容量
+     *
+     * @return this
+     */
+    public TimestampColumn trimToSize() {
+        if (values.length > size) {
+            values = Arrays.copyOf(values, size);
+        }
+        return this;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        if (capacity > values.length) {
+            int grown = values.length + (values.length >> 1);
+            values = Arrays.copyOf(values, Math.max(Math.max(grown, capacity), DEFAULT_CAPACITY));
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Empty column");
+        }
+    }
+}
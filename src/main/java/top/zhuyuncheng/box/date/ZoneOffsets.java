@@ -0,0 +1,109 @@
+package top.zhuyuncheng.box.date;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 时区偏移缓存，按ZoneId缓存当前所在的偏移区间[start, end)，区间内查询只做一次map读取和比较，不产生对象
+ * <p>
+ * 超出区间时通过ZoneRules重新计算并替换区间，固定偏移的时区区间为整个时间轴
+ */
+final class ZoneOffsets {
+    private static final Map<ZoneId, Range> RANGES = new ConcurrentHashMap<>();
+
+    private ZoneOffsets() {
+    }
+
+    /**
+     * 某一时刻相对UTC的偏移秒数
+     *
+     * @param zoneId      ZoneId
+     * @param epochSecond 时间戳（秒）
+     * @return
+     */
+    static int offsetSeconds(ZoneId zoneId, long epochSecond) {
+        if (zoneId instanceof ZoneOffset) {
+            return ((ZoneOffset) zoneId).getTotalSeconds();
+        }
+        return range(zoneId, epochSecond).offset;
+    }
+
+    /**
+     * 本地时间对应的时间戳，与LocalDateTime.atZone一致：夏令时重叠时取较早的偏移，跳过的时间按跳过的长度后移
+     * <p>
+     * 距偏移变化超过一天时直接用所在区间的偏移换算，否则通过ZoneRules计算
+     *
+     * @param zoneId      ZoneId
+     * @param localSecond 本地时间的epoch second
+     * @return
+     */
+    static long toEpochSecond(ZoneId zoneId, long localSecond) {
+        if (zoneId instanceof ZoneOffset) {
+            return localSecond - ((ZoneOffset) zoneId).getTotalSeconds();
+        }
+        Range range = range(zoneId, localSecond - range(zoneId, localSecond).offset);
+        long epochSecond = localSecond - range.offset;
+        if (epochSecond >= range.start + CivilDates.SECONDS_PER_DAY && epochSecond < range.end - CivilDates.SECONDS_PER_DAY) {
+            return epochSecond;
+        }
+        return LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC).atZone(zoneId).toEpochSecond();
+    }
+
+    /**
+     * 包含epochSecond的偏移区间，批量换算时调用方保存区间，区间内不再查询缓存
+     *
+     * @param zoneId      ZoneId
+     * @param epochSecond 时间戳（秒）
+     * @return
+     */
+    static Range range(ZoneId zoneId, long epochSecond) {
+        if (zoneId instanceof ZoneOffset) {
+            return new Range(Long.MIN_VALUE, Long.MAX_VALUE, ((ZoneOffset) zoneId).getTotalSeconds());
+        }
+        Range range = RANGES.get(zoneId);
+        if (range == null || epochSecond < range.start || epochSecond >= range.end) {
+            range = range(zoneId.getRules(), epochSecond);
+            RANGES.put(zoneId, range);
+        }
+        return range;
+    }
+
+    private static Range range(ZoneRules rules, long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        int offset = rules.getOffset(instant).getTotalSeconds();
+        if (rules.isFixedOffset()) {
+            return new Range(Long.MIN_VALUE, Long.MAX_VALUE, offset);
+        }
+        // previousTransition不包含instant本身，恰好位于变化点时需要取到该变化
+        ZoneOffsetTransition previous = rules.previousTransition(instant.plusSeconds(1));
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        long start = previous != null && previous.toEpochSecond() <= epochSecond ? previous.toEpochSecond() : epochSecond;
+        long end = next != null ? next.toEpochSecond() : Long.MAX_VALUE;
+        return new Range(start, end, offset);
+    }
+
+    /**
+     * 偏移区间[start, end)
+     */
+    static final class Range {
+        final long start;
+        final long end;
+        final int offset;
+
+        private Range(long start, long end, int offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+
+        boolean contains(long epochSecond) {
+            return epochSecond >= start && epochSecond < end;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package top.zhuyuncheng.box.clazz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.ByteStreams;
+
+import top.zhuyuncheng.box.clazz.reader.SymbolTable;
+
+class AnalysisBackendTest {
+
+    @AfterEach
+    void resetBackend() {
+        JavassistUtil.setBackend(AnalysisBackend.JAVASSIST);
+    }
+
+    @Test
+    void backendsAgreeOnGuavaClasses() throws Exception {
+        Map<String, byte[]> classes = guavaClasses();
+        assertTrue(classes.size() > 1000);
+        List<String> mismatches = Lists.newArrayList();
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            ClassDependency javassist = analyze(AnalysisBackend.JAVASSIST, entry.getValue());
+            ClassDependency streaming = analyze(AnalysisBackend.STREAMING, entry.getValue());
+            if (!javassist.equals(streaming)) {
+                mismatches.add(entry.getKey());
+            }
+        }
+        assertEquals(ImmutableList.of(), mismatches);
+    }
+
+    @Test
+    void backendsReturnInternedClassNames() throws Exception {
+        byte[] bytes = ByteStreams.toByteArray(resource(ImmutableList.class));
+        for (AnalysisBackend backend : AnalysisBackend.values()) {
+            ClassDependency dependency = analyze(backend, bytes);
+            assertSame(SymbolTable.global().intern(dependency.getClassName()), dependency.getClassName());
+            for (String className : dependency.all()) {
+                assertSame(SymbolTable.global().intern(className), className, backend + " " + className);
+            }
+        }
+    }
+
+    private static ClassDependency analyze(AnalysisBackend backend, byte[] bytes) throws IOException {
+        JavassistUtil.setBackend(backend);
+        return JavassistUtil.analyze(bytes);
+    }
+
+    private static Map<String, byte[]> guavaClasses() throws IOException, URISyntaxException {
+        Map<String, byte[]> classes = Maps.newLinkedHashMap();
+        try (ZipFile jar = new ZipFile(Paths.get(ImmutableList.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toFile())) {
+            for (ZipEntry entry : Collections.list(jar.entries())) {
+                if (entry.getName().endsWith(".class") && !entry.getName().startsWith("META-INF/")) {
+                    try (InputStream in = jar.getInputStream(entry)) {
+                        classes.put(entry.getName(), ByteStreams.toByteArray(in));
+                    }
+                }
+            }
+        }
+        return classes;
+    }
+
+    private static InputStream resource(Class<?> type) {
+        return type.getResourceAsStream(type.getSimpleName() + ".class");
+    }
+}
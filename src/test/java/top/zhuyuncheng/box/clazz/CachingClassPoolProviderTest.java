@@ -0,0 +1,44 @@
+package top.zhuyuncheng.box.clazz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.bytecode.ClassFile;
+
+class CachingClassPoolProviderTest {
+    private static final ClassLoader LOADER = CachingClassPoolProviderTest.class.getClassLoader();
+    private static final String CLASS_NAME = MethodDependency.class.getName();
+
+    @Test
+    void returnsSharedInstances() throws Exception {
+        CachingClassPoolProvider provider = new CachingClassPoolProvider();
+        assertSame(provider.getCtClass(CLASS_NAME, LOADER), provider.getCtClass(CLASS_NAME, LOADER));
+        ClassFile classFile = provider.getClassFile(CLASS_NAME, LOADER);
+        assertSame(classFile, provider.getClassFile(CLASS_NAME, LOADER));
+    }
+
+    @Test
+    void lookupStillWorksAfterCallerDetaches() throws Exception {
+        CachingClassPoolProvider provider = new CachingClassPoolProvider();
+        CtClass first = provider.getCtClass(CLASS_NAME, LOADER);
+        int methods = first.getDeclaredMethods().length;
+        first.detach();
+
+        CtClass second = provider.getCtClass(CLASS_NAME, LOADER);
+        assertEquals(CLASS_NAME, second.getName());
+        assertEquals(methods, second.getDeclaredMethods().length);
+
+        // 淘汰已detach的实例不会影响ClassPool中重新创建的实例
+        ClassPool classPool = provider.getClassPool(LOADER);
+        CtClass reloaded = classPool.get(CLASS_NAME);
+        provider.clear();
+        assertSame(reloaded, classPool.get(CLASS_NAME));
+        CtClass third = provider.getCtClass(CLASS_NAME, LOADER);
+        assertSame(reloaded, third);
+        assertEquals(methods, third.getDeclaredMethods().length);
+    }
+}
@@ -0,0 +1,45 @@
+package top.zhuyuncheng.box.clazz;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+
+class DescriptorsTest {
+
+    @Test
+    void collectsMethodDescriptor() {
+        assertEquals(Arrays.asList("java.lang.String", "java.util.List"),
+                collect("(I[Ljava/lang/String;J)Ljava/util/List;"));
+    }
+
+    @Test
+    void collectsGenericArgumentsAndBounds() {
+        assertEquals(Arrays.asList("java.lang.Object", "java.lang.Comparable", "java.lang.Number", "java.util.Map"),
+                collect("<T:Ljava/lang/Object;U::Ljava/lang/Comparable<TU;>;>(TT;)Ljava/util/Map<+Ljava/lang/Number;*>;"));
+    }
+
+    @Test
+    void collectsOuterClassOfGenericInnerClass() {
+        assertEquals(Arrays.asList("java.util.Map", "java.lang.Number", "java.util.Map$Entry"),
+                collect("Ljava/util/Map<TK;TV;>.Entry<+Ljava/lang/Number;*>;"));
+        assertEquals(Arrays.asList("pkg.A", "pkg.A$B", "java.lang.String", "pkg.A$B$C"),
+                collect("Lpkg/A<TT;>.B.C<Ljava/lang/String;>;"));
+    }
+
+    @Test
+    void internsClassNames() {
+        assertSame(Descriptors.toClassName("java.util.Map"), collect("Ljava/util/Map;").get(0));
+    }
+
+    private static List<String> collect(String descriptor) {
+        List<String> names = Lists.newArrayList();
+        Descriptors.collectClassNames(descriptor, names::add);
+        return names;
+    }
+}
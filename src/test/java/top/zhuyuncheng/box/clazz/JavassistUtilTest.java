@@ -0,0 +1,53 @@
+package top.zhuyuncheng.box.clazz;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodType;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import javassist.bytecode.ClassFile;
+
+class JavassistUtilTest {
+
+    @Test
+    void collectsLambdaBootstrapAndImplementation() throws Exception {
+        Set<String> body = body("lambda", "()Ljava/util/function/Supplier;");
+        assertTrue(body.contains(Supplier.class.getName()), body::toString);
+        assertTrue(body.contains(LambdaMetafactory.class.getName()), body::toString);
+        assertTrue(body.contains(MethodType.class.getName()), body::toString);
+        assertTrue(body.contains(Lambdas.class.getName()), body::toString);
+    }
+
+    @Test
+    void collectsMethodReferenceTarget() throws Exception {
+        Set<String> body = body("methodRef", "()Ljava/util/function/Supplier;");
+        assertTrue(body.contains(Supplier.class.getName()), body::toString);
+        assertTrue(body.contains(LambdaMetafactory.class.getName()), body::toString);
+        assertTrue(body.contains(Target.class.getName()), body::toString);
+    }
+
+    private static Set<String> body(String methodName, String descriptor) throws Exception {
+        ClassFile classFile = JavassistUtil.getClassFile(Lambdas.class.getName());
+        return JavassistUtil.getMethodDependency(classFile, methodName, descriptor).getBody();
+    }
+
+    static class Lambdas {
+        Supplier<String> lambda() {
+            return () -> "lambda";
+        }
+
+        Supplier<Object> methodRef() {
+            return Target::create;
+        }
+    }
+
+    static class Target {
+        static Object create() {
+            return new Object();
+        }
+    }
+}
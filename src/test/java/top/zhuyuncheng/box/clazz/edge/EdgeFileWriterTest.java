@@ -0,0 +1,91 @@
+package top.zhuyuncheng.box.clazz.edge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+import top.zhuyuncheng.box.clazz.DependencyKind;
+
+class EdgeFileWriterTest {
+    private static final int THREADS = 4;
+    private static final int CLASSES = 200;
+    private static final int EDGES = 50;
+
+    @Test
+    void keepsEdgesOfOneClassTogetherAcrossThreads() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Set<String> expected = Sets.newConcurrentHashSet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = Lists.newArrayList();
+        try (EdgeFileWriter writer = new EdgeFileWriter(out)) {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads.add(new Thread(() -> {
+                    awaitQuietly(start);
+                    for (int c = 0; c < CLASSES; c++) {
+                        String source = "pkg.C" + thread + "_" + c;
+                        for (int e = 0; e < EDGES; e++) {
+                            DependencyKind kind = DependencyKind.values()[e % DependencyKind.values().length];
+                            String target = "pkg.T" + e;
+                            writer.accept(source, target, kind);
+                            expected.add(source + " " + target + " " + kind);
+                        }
+                        Thread.yield();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+
+        Set<String> actual = Sets.newHashSet();
+        Set<String> finished = Sets.newHashSet();
+        String[] last = {null};
+        long count = EdgeFileReader.read(new ByteArrayInputStream(out.toByteArray()), (source, target, kind) -> {
+            if (!source.equals(last[0])) {
+                assertTrue(last[0] == null || finished.add(last[0]), "edges of " + last[0] + " are split");
+                assertTrue(!finished.contains(source), "edges of " + source + " are split");
+                last[0] = source;
+            }
+            actual.add(source + " " + target + " " + kind);
+        });
+        assertEquals((long) THREADS * CLASSES * EDGES, count);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void splitsLargeClassesIntoBlocks() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int edges = EdgeFileWriter.BLOCK_SIZE * 2 + 1;
+        try (EdgeFileWriter writer = new EdgeFileWriter(out)) {
+            for (int i = 0; i < edges; i++) {
+                writer.accept("pkg.Large", "pkg.T" + i, DependencyKind.CONST_POOL);
+            }
+        }
+        List<String> targets = Lists.newArrayList();
+        EdgeFileReader.read(new ByteArrayInputStream(out.toByteArray()), (source, target, kind) -> targets.add(target));
+        assertEquals(edges, targets.size());
+        assertEquals("pkg.T" + (edges - 1), targets.get(edges - 1));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
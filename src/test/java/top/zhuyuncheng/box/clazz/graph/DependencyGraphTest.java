@@ -0,0 +1,69 @@
+package top.zhuyuncheng.box.clazz.graph;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+class DependencyGraphTest {
+    private static final int RING = 2000;
+    private static final int THREADS = 8;
+
+    @Test
+    void keepsCycleWholeUnderConcurrentQueries() throws Exception {
+        // c0 -> c1 -> ... -> c1999 -> c0，每个类另依赖一个叶子
+        Map<String, Set<String>> edges = Maps.newHashMap();
+        ImmutableSet.Builder<String> ring = ImmutableSet.builder();
+        for (int i = 0; i < RING; i++) {
+            ring.add(name(i));
+            edges.put(name(i), ImmutableSet.of(name((i + 1) % RING), "leaf" + i));
+        }
+        Set<String> members = ring.build();
+
+        for (int round = 0; round < 20; round++) {
+            DependencyGraph graph = new DependencyGraph(
+                    className -> edges.getOrDefault(className, Collections.emptySet()),
+                    edges::containsKey);
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<Set<String>>> futures = Lists.newArrayList();
+                for (int t = 0; t < THREADS; t++) {
+                    String root = name(t * RING / THREADS);
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return graph.closure(root);
+                    }));
+                }
+                start.countDown();
+                for (Future<Set<String>> future : futures) {
+                    assertEquals(2 * RING, future.get().size());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            for (String member : members) {
+                assertEquals(RING, graph.component(member).size(), member);
+                assertEquals(2 * RING, graph.closure(member).size(), member);
+            }
+            assertEquals(Collections.singletonList(members), graph.cycles(Collections.singleton(name(0))));
+        }
+    }
+
+    private static String name(int i) {
+        return "c" + i;
+    }
+}
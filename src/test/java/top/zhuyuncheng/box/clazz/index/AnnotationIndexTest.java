@@ -0,0 +1,38 @@
+package top.zhuyuncheng.box.clazz.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import top.zhuyuncheng.box.clazz.scan.DependencyScanner;
+
+class AnnotationIndexTest {
+
+    @Test
+    void serializesIndependentlyOfCompletionOrder() throws Exception {
+        List<Path> paths = Collections.singletonList(Paths.get(ImmutableList.class.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        AnnotationIndex sequential = AnnotationIndex.scan(DependencyScanner.builder().parallelism(1).build(), paths);
+        AnnotationIndex parallel = AnnotationIndex.scan(DependencyScanner.builder().parallelism(4).maxInFlight(64).build(), paths);
+        assertFalse(sequential.annotations().isEmpty());
+
+        byte[] bytes = bytes(sequential);
+        assertArrayEquals(bytes, bytes(parallel));
+        assertArrayEquals(bytes, bytes(AnnotationIndex.read(new ByteArrayInputStream(bytes))));
+    }
+
+    private static byte[] bytes(AnnotationIndex index) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package top.zhuyuncheng.box.clazz.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.ByteStreams;
+
+import top.zhuyuncheng.box.clazz.AnalysisBackend;
+import top.zhuyuncheng.box.clazz.ClassDependency;
+import top.zhuyuncheng.box.clazz.JavassistUtil;
+import top.zhuyuncheng.box.clazz.scan.DependencyScanner;
+
+class DependencyIndexTest {
+    private static final Class<?>[] CLASSES = {DependencyIndex.class, DependencyScanner.class, JavassistUtil.class};
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void resetBackend() {
+        JavassistUtil.setBackend(AnalysisBackend.JAVASSIST);
+    }
+
+    @Test
+    void roundTripsThroughFile() throws IOException {
+        Path file = dir.resolve("deps.idx");
+        DependencyIndex index = DependencyIndex.create();
+        for (Class<?> type : CLASSES) {
+            index.analyze(bytes(type));
+        }
+        assertEquals(CLASSES.length, index.analyzedCount());
+        index.save(file);
+
+        DependencyIndex reopened = DependencyIndex.open(file);
+        for (Class<?> type : CLASSES) {
+            assertEquals(JavassistUtil.analyze(bytes(type)), reopened.analyze(bytes(type)));
+        }
+        assertEquals(0, reopened.analyzedCount());
+    }
+
+    @Test
+    void ignoresFilesFromOtherAnalyzerVersions() throws IOException {
+        Path file = dir.resolve("deps.idx");
+        DependencyIndex index = DependencyIndex.create();
+        index.analyze(bytes(DependencyIndex.class));
+        index.save(file);
+
+        byte[] content = Files.readAllBytes(file);
+        ByteBuffer.wrap(content).putInt(8, JavassistUtil.ANALYZER_VERSION - 1);
+        Files.write(file, content);
+
+        DependencyIndex stale = DependencyIndex.open(file);
+        stale.analyze(bytes(DependencyIndex.class));
+        assertEquals(1, stale.analyzedCount());
+    }
+
+    @Test
+    void keysEntriesByBackend() throws IOException {
+        byte[] bytes = bytes(DependencyIndex.class);
+        DependencyIndex index = DependencyIndex.create();
+        index.analyze(bytes);
+        JavassistUtil.setBackend(AnalysisBackend.STREAMING);
+        ClassDependency streaming = index.analyze(bytes);
+        assertEquals(2, index.analyzedCount());
+        assertEquals(JavassistUtil.analyze(bytes), streaming);
+    }
+
+    static byte[] bytes(Class<?> type) throws IOException {
+        try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package top.zhuyuncheng.box.clazz.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import top.zhuyuncheng.box.clazz.Descriptors;
+
+class SymbolTableTest {
+
+    @Test
+    void internsAllFormsToOneInstance() {
+        SymbolTable table = new SymbolTable();
+        String name = table.intern("java/util/Map$Entry");
+        assertEquals("java.util.Map$Entry", name);
+        assertSame(name, table.intern("java.util.Map$Entry"));
+        assertSame(name, table.intern("xjava/util/Map$Entryx", 1, 20));
+        assertSame(name, table.intern("java/util/Map$Entry".toCharArray(), 0, 19));
+        byte[] bytes = "java/util/Map$Entry".getBytes(StandardCharsets.UTF_8);
+        assertSame(name, table.intern(ByteBuffer.wrap(bytes), 0, bytes.length));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    void reclaimsUnreferencedNames() throws InterruptedException {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 100_000; i++) {
+            table.intern("com/example/Generated" + i);
+        }
+        for (int attempt = 0; attempt < 10 && table.size() > 1_000; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(table.size() <= 1_000, "size=" + table.size());
+    }
+
+    @Test
+    void doesNotInternArrayDescriptors() {
+        String array = Descriptors.toClassName("[Ljava/lang/String;");
+        assertEquals("[Ljava.lang.String;", array);
+        assertNotSame(array, Descriptors.toClassName("[Ljava/lang/String;"));
+    }
+}
@@ -0,0 +1,50 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+class BatchAnalyzerTest {
+    private static final int COUNT = 10000;
+
+    @Test
+    void rethrowsFirstConsumerFailureAndStopsSubmitting() {
+        IllegalStateException failure = new IllegalStateException("consumer failed");
+        AtomicInteger submitted = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        try (BatchAnalyzer analyzer = BatchAnalyzer.builder().parallelism(1).maxInFlight(2).build()) {
+            Stream<String> classNames = Collections.nCopies(COUNT, String.class.getName()).stream()
+                    .peek(className -> submitted.incrementAndGet());
+            IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                    () -> analyzer.analyze(classNames, dependency -> {
+                        if (consumed.incrementAndGet() == 3) {
+                            throw failure;
+                        }
+                    }));
+            assertSame(failure, thrown);
+        }
+        assertTrue(submitted.get() < COUNT, () -> "submitted " + submitted);
+        assertTrue(consumed.get() <= 3, () -> "consumed " + consumed);
+    }
+
+    @Test
+    void rethrowsErrorEscapingTask() {
+        AssertionError failure = new AssertionError("task failed");
+        AtomicInteger submitted = new AtomicInteger();
+        try (BatchAnalyzer analyzer = BatchAnalyzer.builder().parallelism(1).maxInFlight(2).build()) {
+            Stream<Runnable> tasks = Stream.generate(() -> (Runnable) () -> {
+                if (submitted.incrementAndGet() == 3) {
+                    throw failure;
+                }
+            }).limit(COUNT);
+            assertSame(failure, assertThrows(AssertionError.class, () -> analyzer.execute(tasks)));
+        }
+        assertTrue(submitted.get() < COUNT, () -> "submitted " + submitted);
+    }
+}
@@ -0,0 +1,64 @@
+package top.zhuyuncheng.box.clazz.scan;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.google.common.io.ByteStreams;
+
+import top.zhuyuncheng.box.clazz.ClassDependency;
+
+class DependencyWatcherTest {
+    private static final long TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final String CLASS_NAME = ClassDependency.class.getName();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reregistersRecreatedDirectory() throws Exception {
+        Path sub = dir.resolve("sub");
+        Path file = sub.resolve("ClassDependency.class");
+        Files.createDirectories(sub);
+        Files.write(file, bytes());
+
+        try (DependencyWatcher watcher = DependencyWatcher.builder().directory(dir).debounceMillis(10L).build()) {
+            assertNotNull(watcher.get(CLASS_NAME));
+
+            Files.delete(file);
+            Files.delete(sub);
+            await(() -> watcher.get(CLASS_NAME) == null);
+
+            long generation = watcher.generation();
+            Files.createDirectories(sub);
+            await(() -> watcher.generation() > generation);
+
+            // 文件在目录重新注册之后写入，只能通过新目录的事件发现
+            Files.write(file, bytes());
+            await(() -> watcher.get(CLASS_NAME) != null);
+        }
+    }
+
+    private static byte[] bytes() throws IOException {
+        try (InputStream in = ClassDependency.class.getResourceAsStream("ClassDependency.class")) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package top.zhuyuncheng.box.date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class DateTimeWriterTest {
+    private static final String[] PATTERNS = {DateTimes.DATE_PATTERN, DateTimes.DATETIME_PATTERN,
+            DateTimes.ISO_DATETIME_PATTERN, DateTimes.ISO_LOCAL_DATETIME_PATTERN, "yyyy/MM/dd HH"};
+
+    @Test
+    void matchesDateTimeFormatterAcrossZones() {
+        Random random = new Random(4);
+        for (String zone : EpochTimesTest.ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            for (int i = 0; i < 5_000; i++) {
+                assertFormats(EpochTimesTest.randomEpochMillis(random, i), zoneId);
+            }
+        }
+    }
+
+    @Test
+    void matchesDateTimeFormatterAroundTransitions() {
+        ZoneId newYork = ZoneId.of("America/New_York");
+        ZoneId lordHowe = ZoneId.of("Australia/Lord_Howe");
+        for (String transition : new String[]{"2021-03-14T07:00:00Z", "2021-11-07T06:00:00Z"}) {
+            long at = Instant.parse(transition).toEpochMilli();
+            for (long delta = -3_600_000L; delta <= 3_600_000L; delta += 299_999L) {
+                assertFormats(at + delta, newYork);
+            }
+        }
+        long at = Instant.parse("2021-10-02T15:30:00Z").toEpochMilli();
+        for (long delta = -1_800_000L; delta <= 1_800_000L; delta += 59_999L) {
+            assertFormats(at + delta, lordHowe);
+        }
+    }
+
+    private static void assertFormats(long epochMillis, ZoneId zoneId) {
+        LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zoneId);
+        for (String pattern : PATTERNS) {
+            String expected = DateTimeFormatter.ofPattern(pattern).format(local);
+            String message = zoneId + " " + epochMillis + " " + pattern;
+            assertEquals(expected, DateTimeWriter.append(new StringBuilder(), epochMillis, pattern, zoneId).toString(), message);
+
+            char[] chars = new char[64];
+            int length = DateTimeWriter.format(chars, 3, epochMillis, pattern, zoneId);
+            assertEquals(expected, new String(chars, 3, length), message);
+
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            length = DateTimeWriter.format(buffer, epochMillis, pattern, zoneId);
+            assertEquals(expected, new String(buffer.array(), 0, length, StandardCharsets.US_ASCII), message);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package top.zhuyuncheng.box.date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DateTimesTest {
+    /**
+     * 非内置格式，只走DateTimeFormatter解析
+     */
+    private static final String SLASH_DATETIME_PATTERN = "yyyy/MM/dd HH:mm:ss";
+    private static final String SLASH_DATE_PATTERN = "yyyy/MM/dd";
+
+    @Test
+    void parsesValidDatesOnFastPathAndFallback() {
+        LocalDateTime expected = LocalDateTime.of(2020, 2, 29, 23, 59, 58);
+        assertEquals(expected, FastDateTimeParser.parse("2020-02-29 23:59:58", DateTimes.DATETIME_PATTERN));
+        assertEquals(expected, DateTimes.from("2020-02-29 23:59:58", DateTimes.DATETIME_PATTERN).toLocalDateTime());
+        assertEquals(expected, DateTimes.from("2020/02/29 23:59:58", SLASH_DATETIME_PATTERN).toLocalDateTime());
+        assertEquals(LocalDateTime.of(2021, 4, 30, 0, 0), DateTimes.from("2021/04/30", SLASH_DATE_PATTERN).toLocalDateTime());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2021-02-29", "2021-02-30", "2021-04-31", "2021-13-01", "2021-00-10", "2021-01-00"})
+    void rejectsInvalidDates(String text) {
+        assertNull(FastDateTimeParser.parse(text, DateTimes.DATE_PATTERN));
+        assertRejected(text, DateTimes.DATE_PATTERN);
+        assertRejected(text.replace('-', '/'), SLASH_DATE_PATTERN);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2021-01-01 24:00:00", "2021-01-01 23:60:00", "2021-01-01 23:59:60"})
+    void rejectsInvalidTimes(String text) {
+        assertNull(FastDateTimeParser.parse(text, DateTimes.DATETIME_PATTERN));
+        assertRejected(text, DateTimes.DATETIME_PATTERN);
+        assertRejected(text.replace('-', '/'), SLASH_DATETIME_PATTERN);
+    }
+
+    @Test
+    void defaultsMissingFields() {
+        assertEquals(LocalDateTime.of(1970, 1, 1, 8, 30), DateTimes.from("08:30", "HH:mm").toLocalDateTime());
+        assertEquals(LocalDateTime.of(2021, 3, 1, 0, 0), DateTimes.from("2021-03", "yyyy-MM").toLocalDateTime());
+    }
+
+    @Test
+    void convertsToRequestedZone() {
+        ZoneId zone = ZoneId.of("Asia/Tokyo");
+        DateTimes dateTimes = DateTimes.from("2021-06-01 12:00:00", DateTimes.DATETIME_PATTERN, zone);
+        assertEquals(LocalDateTime.of(2021, 6, 1, 12, 0).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                (long) dateTimes.toLong());
+    }
+
+    @Test
+    void strictPatternReplacesYearOfEraOutsideQuotes() {
+        assertEquals("uuuu-MM-dd'y'", DateTimeFormatters.strictPattern("yyyy-MM-dd'y'"));
+        assertEquals("G yyyy", DateTimeFormatters.strictPattern("G yyyy"));
+    }
+
+    @Test
+    void rangeIncludesMonthEndSteps() {
+        assertEquals(Arrays.asList("2021-01-31", "2021-02-28"), range("2021-01-31", "2021-02-28", 1, ChronoUnit.MONTHS));
+        assertEquals(Arrays.asList("2021-01-31", "2021-02-28", "2021-03-31"), range("2021-01-31", "2021-04-29", 1, ChronoUnit.MONTHS));
+        assertEquals(Arrays.asList("2021-01-31", "2021-03-31"), range("2021-01-31", "2021-05-30", 2, ChronoUnit.MONTHS));
+        assertEquals(Arrays.asList("2020-02-29", "2021-02-28"), range("2020-02-29", "2021-02-28", 1, ChronoUnit.YEARS));
+        assertEquals(Arrays.asList("2021-03-01", "2021-03-03"), range("2021-03-01", "2021-03-04", 2, ChronoUnit.DAYS));
+        assertEquals(Collections.emptyList(), range("2021-03-02", "2021-03-01", 1, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void rangeVariantsAgree() {
+        DateTimes start = DateTimes.from("2020-01-31 10:00:00", DateTimes.DATETIME_PATTERN);
+        DateTimes end = DateTimes.from("2030-12-30 10:00:00", DateTimes.DATETIME_PATTERN);
+        List<Long> expected = DateTimes.stream(start, end, 1, ChronoUnit.MONTHS).map(DateTimes::toLong).collect(Collectors.toList());
+        assertEquals(131, expected.size());
+        assertEquals(expected, DateTimes.stream(start, end, 1, ChronoUnit.MONTHS).parallel().map(DateTimes::toLong).collect(Collectors.toList()));
+        assertEquals(expected, DateTimes.epochMillis(start, end, 1, ChronoUnit.MONTHS).boxed().collect(Collectors.toList()));
+
+        Spliterator<DateTimes> spliterator = DateTimes.spliterator(start, end, 1, ChronoUnit.MONTHS);
+        assertEquals(131, spliterator.getExactSizeIfKnown());
+        assertFalse(spliterator.hasCharacteristics(Spliterator.DISTINCT));
+        assertThrows(IllegalArgumentException.class, () -> DateTimes.stream(start, end, 0, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void immutableVariantsAgree() {
+        DateTimes start = DateTimes.from("2020-01-31 10:00:00", DateTimes.DATETIME_PATTERN);
+        DateTimes end = DateTimes.from("2021-03-01 08:30:15", DateTimes.DATETIME_PATTERN);
+        List<Long> expected = DateTimes.stream(start, end, 2, ChronoUnit.MONTHS).map(DateTimes::toLong).collect(Collectors.toList());
+        List<ImmutableDateTimes> range = ImmutableDateTimes.between(start.toImmutable(), end.toImmutable(), 2, ChronoUnit.MONTHS);
+        assertEquals(expected, range.stream().map(ImmutableDateTimes::toLong).collect(Collectors.toList()));
+        assertEquals("2021-01-31 10:00:00", range.get(range.size() - 1).toString());
+        assertEquals(14, ImmutableDateTimes.between(start.toImmutable(), end.toImmutable(), ChronoUnit.MONTHS).size());
+
+        assertEquals(start.difference(end), start.toImmutable().difference(end.toImmutable()));
+        assertEquals(end.difference(start), end.toImmutable().difference(start.toImmutable()));
+    }
+
+    private static List<String> range(String start, String end, long step, ChronoUnit unit) {
+        return DateTimes.stream(DateTimes.from(start, DateTimes.DATE_PATTERN), DateTimes.from(end, DateTimes.DATE_PATTERN), step, unit)
+                .map(DateTimes::toString)
+                .collect(Collectors.toList());
+    }
+
+    private static void assertRejected(String text, String pattern) {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> DateTimes.from(text, pattern));
+        assertInstanceOf(DateTimeException.class, e.getCause());
+    }
+}
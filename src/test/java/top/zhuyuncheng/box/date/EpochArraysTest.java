@@ -0,0 +1,69 @@
+package top.zhuyuncheng.box.date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoField;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EpochArraysTest {
+    private static final int SIZE = EpochArrays.CHUNK_SIZE * 2 + 17;
+
+    @Test
+    void matchesLocalDateTimeAcrossZones() {
+        Random random = new Random(2);
+        long[] src = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            src[i] = EpochTimesTest.randomEpochMillis(random, i);
+        }
+        for (String zone : EpochTimesTest.ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            int[] keys = new int[SIZE];
+            int[] hours = new int[SIZE];
+            int[] minutes = new int[SIZE];
+            long[] dayStarts = new long[SIZE];
+            long[] monthStarts = new long[SIZE];
+            String[] formatted = new String[SIZE];
+            EpochArrays.parallel(SIZE, (from, to) -> EpochArrays.toDateKeys(src, from, to, keys, zoneId));
+            EpochArrays.parallel(SIZE, (from, to) -> EpochArrays.toDayStarts(src, from, to, dayStarts, zoneId));
+            EpochArrays.parallel(SIZE, (from, to) -> EpochArrays.format(src, from, to, formatted, DateTimes.ISO_DATETIME_PATTERN, zoneId));
+            EpochArrays.hours(src, hours, zoneId);
+            EpochArrays.extract(src, minutes, ChronoField.MINUTE_OF_HOUR, zoneId);
+            EpochArrays.toMonthStarts(src, monthStarts, zoneId);
+            for (int i = 0; i < SIZE; i++) {
+                LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(src[i]), zoneId);
+                String message = zone + " " + src[i];
+                assertEquals(local.getYear() * 10000 + local.getMonthValue() * 100 + local.getDayOfMonth(), keys[i], message);
+                assertEquals(local.getHour(), hours[i], message);
+                assertEquals(local.getMinute(), minutes[i], message);
+                assertEquals(local.toLocalDate().atStartOfDay(zoneId).toInstant().toEpochMilli(), dayStarts[i], message);
+                assertEquals(local.toLocalDate().withDayOfMonth(1).atStartOfDay().atZone(zoneId).toInstant().toEpochMilli(),
+                        monthStarts[i], message);
+                assertEquals(DateTimes.from(src[i], DateTimes.ISO_DATETIME_PATTERN, zoneId).toString(), formatted[i], message);
+            }
+        }
+    }
+
+    @Test
+    void sortedInputAcrossTransitions() {
+        ZoneId zoneId = ZoneId.of("America/Sao_Paulo");
+        long start = Instant.parse("2018-11-03T00:00:00Z").toEpochMilli();
+        long[] src = new long[48 * 60];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = start + i * 60_000L;
+        }
+        long[] dayStarts = new long[src.length];
+        String[] formatted = new String[src.length];
+        EpochArrays.toDayStarts(src, dayStarts, zoneId);
+        EpochArrays.format(src, formatted, DateTimes.DATETIME_PATTERN, zoneId);
+        for (int i = 0; i < src.length; i++) {
+            LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(src[i]), zoneId);
+            assertEquals(local.toLocalDate().atStartOfDay(zoneId).toInstant().toEpochMilli(), dayStarts[i], local.toString());
+            assertEquals(DateTimes.from(src[i], DateTimes.DATETIME_PATTERN, zoneId).toString(), formatted[i]);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package top.zhuyuncheng.box.date;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EpochTimesTest {
+    static final String[] ZONES = {"UTC", "America/New_York", "Europe/London", "Asia/Shanghai",
+            "Australia/Lord_Howe", "America/Sao_Paulo", "+05:30"};
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+    private static final ZoneId LORD_HOWE = ZoneId.of("Australia/Lord_Howe");
+
+    @Test
+    void plusHoursIntoSpringForwardGapShiftsLater() {
+        long start = epochMillis(LocalDateTime.of(2021, 3, 14, 1, 30), NEW_YORK);
+        assertEquals(epochMillis(LocalDateTime.of(2021, 3, 14, 3, 30), NEW_YORK), EpochTimes.plusHours(start, 1, NEW_YORK));
+    }
+
+    @Test
+    void plusHoursIntoFallBackOverlapUsesEarlierOffset() {
+        long start = epochMillis(LocalDateTime.of(2021, 11, 7, 0, 30), NEW_YORK);
+        assertEquals(Instant.parse("2021-11-07T05:30:00Z").toEpochMilli(), EpochTimes.plusHours(start, 1, NEW_YORK));
+        long late = Instant.parse("2021-11-07T06:30:00Z").toEpochMilli();
+        assertEquals(Instant.parse("2021-11-08T06:30:00Z").toEpochMilli(), EpochTimes.plusDays(late, 1, NEW_YORK));
+    }
+
+    @Test
+    void dayMinWhenMidnightIsSkipped() {
+        long noon = epochMillis(LocalDateTime.of(2018, 11, 4, 12, 0), SAO_PAULO);
+        assertEquals(epochMillis(LocalDateTime.of(2018, 11, 4, 1, 0), SAO_PAULO), EpochTimes.dayMin(noon, SAO_PAULO));
+        assertEquals(LocalDate.of(2018, 11, 4).atStartOfDay(SAO_PAULO).toInstant().toEpochMilli(), EpochTimes.dayMin(noon, SAO_PAULO));
+    }
+
+    @Test
+    void halfHourTransitions() {
+        long start = epochMillis(LocalDateTime.of(2021, 10, 3, 1, 45), LORD_HOWE);
+        // 02:00-02:30不存在，后移30分钟
+        assertEquals(epochMillis(LocalDateTime.of(2021, 10, 3, 2, 30), LORD_HOWE), EpochTimes.plusMinutes(start, 15, LORD_HOWE));
+        assertEquals(Instant.parse("2021-10-02T15:30:00Z").toEpochMilli(), EpochTimes.plusMinutes(start, 15, LORD_HOWE));
+        assertEquals(Instant.parse("2021-10-02T15:45:00Z").toEpochMilli(), EpochTimes.plusMinutes(start, 30, LORD_HOWE));
+    }
+
+    @Test
+    void matchesDateTimesAcrossZones() {
+        Random random = new Random(1);
+        for (String zone : ZONES) {
+            ZoneId zoneId = ZoneId.of(zone);
+            for (int i = 0; i < 5_000; i++) {
+                long value = randomEpochMillis(random, i);
+                int amount = random.nextInt(2000) - 1000;
+                String message = zone + " " + value + " " + amount;
+                assertEquals(dateTimes(value, zoneId).plusYears(amount / 50).toLong(), EpochTimes.plusYears(value, amount / 50, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).plusMonths(amount).toLong(), EpochTimes.plusMonths(value, amount, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).plusDays(amount).toLong(), EpochTimes.plusDays(value, amount, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).plusHours(amount).toLong(), EpochTimes.plusHours(value, amount, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).plusSeconds(amount * 3571L).toLong(), EpochTimes.plusSeconds(value, amount * 3571L, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).dayMin().toLong(), EpochTimes.dayMin(value, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).dayMax().toLong(), EpochTimes.dayMax(value, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).firstDayOfMonth().toLong(), EpochTimes.firstDayOfMonth(value, zoneId), message);
+                assertEquals(dateTimes(value, zoneId).lastDayOfMonth().toLong(), EpochTimes.lastDayOfMonth(value, zoneId), message);
+            }
+        }
+    }
+
+    @Test
+    void columnAppliesEpochTimesToEveryValue() {
+        Random random = new Random(3);
+        ZoneId zoneId = NEW_YORK;
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomEpochMillis(random, i);
+        }
+        long[] expected = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            expected[i] = dateTimes(values[i], zoneId).plusMonths(1).plusHours(5).dayMin().toLong();
+        }
+        TimestampColumn column = TimestampColumn.of(values, zoneId).plusMonths(1).plusHours(5).dayMin();
+        assertArrayEquals(expected, column.toArray());
+        assertEquals(values[0], TimestampColumn.of(values, zoneId).get(0));
+    }
+
+    /**
+     * 大多在1843-2096年之间，每3个中有一个覆盖更大的范围
+     */
+    static long randomEpochMillis(Random random, int i) {
+        return i % 3 == 0 ? random.nextLong() % 60_000_000_000_000L : random.nextLong() % 4_000_000_000_000L;
+    }
+
+    private static DateTimes dateTimes(long epochMillis, ZoneId zoneId) {
+        return DateTimes.from(epochMillis, DateTimes.DATETIME_PATTERN, zoneId);
+    }
+
+    private static long epochMillis(LocalDateTime dateTime, ZoneId zoneId) {
+        return dateTime.atZone(zoneId).toInstant().toEpochMilli();
+    }
+}